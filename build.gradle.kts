@@ -11,6 +11,8 @@ plugins {
   id("org.jetbrains.intellij") version "1.13.3"
   // Gradle Changelog Plugin
   id("org.jetbrains.changelog") version "2.1.2"
+  // JMH benchmarks, run with `./gradlew jmh`
+  id("me.champeau.jmh") version "0.7.1"
 }
 
 group = properties("pluginGroup")
@@ -31,6 +33,14 @@ intellij {
   plugins.set(properties("platformPlugins").split(',').map(String::trim).filter(String::isNotEmpty))
 }
 
+// Configure JMH benchmarks - read more: https://github.com/melix/jmh-gradle-plugin
+jmh {
+  jmhVersion.set("1.36")
+  fork.set(1)
+  warmupIterations.set(3)
+  iterations.set(5)
+}
+
 // Configure Gradle Changelog Plugin - read more: https://github.com/JetBrains/gradle-changelog-plugin
 changelog {
   groups.empty()
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link LRUCache} accessed by concurrent translation workers,
+ * with a single segment (an exact LRU cache behind one lock) and with multiple segments.
+ *
+ * @author airsaid
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class LRUCacheBenchmark {
+
+    private static final int CAPACITY = 10_000;
+    // Twice the capacity, so that about half of the reads miss and the puts evict entries.
+    private static final int KEY_SPACE = CAPACITY * 2;
+
+    @Param({"1", "16"})
+    public int concurrencyLevel;
+
+    private LRUCache<String, String> lruCache;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        lruCache = new LRUCache<>(CAPACITY, concurrencyLevel);
+        keys = new String[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = "auto_zh-CN_text" + i;
+            if (i % 2 == 0) {
+                lruCache.put(keys[i], "value" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        return lruCache.get(keys[ThreadLocalRandom.current().nextInt(KEY_SPACE)]);
+    }
+
+    @Benchmark
+    public void put() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEY_SPACE)];
+        lruCache.put(key, key);
+    }
+
+    /**
+     * The access pattern of translation: mostly cache lookups, and a put after each miss.
+     */
+    @Benchmark
+    public String getOrPut() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEY_SPACE)];
+        String value = lruCache.get(key);
+        if (value == null) {
+            lruCache.put(key, key);
+        }
+        return value;
+    }
+}
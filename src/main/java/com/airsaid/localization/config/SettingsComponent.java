@@ -18,6 +18,7 @@
 package com.airsaid.localization.config;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.impl.openai.ChatGPTTranslator;
 import com.airsaid.localization.translate.services.TranslatorService;
 import com.airsaid.localization.ui.FixedLinkLabel;
 import com.airsaid.localization.ui.SupportLanguagesDialog;
@@ -36,6 +37,7 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.awt.event.ItemEvent;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Objects;
@@ -58,6 +60,22 @@ public class SettingsComponent {
     private JBCheckBox enableCacheCheckBox;
     private ComboBox<String> maxCacheSizeComboBox;
     private ComboBox<String> translationIntervalComboBox;
+    private ComboBox<String> translationConcurrencyComboBox;
+    private JBTextField requestsPerSecondField;
+    private JBTextField requestBurstField;
+    private JBTextField charactersPerMinuteField;
+    private JBTextField maxConcurrentRequestsField;
+    private JBTextField connectTimeoutField;
+    private JBTextField readTimeoutField;
+    private JBTextField retryMaxAttemptsField;
+    private JBTextField retryInitialBackoffField;
+    private JBTextField retryMaxBackoffField;
+    private JBCheckBox enableHttp2CheckBox;
+    private JPanel openAIPanel;
+    private JBTextField openAIBaseUrlField;
+    private JBTextField openAIModelField;
+    private JBTextField openAIMaxTokensField;
+    private JBCheckBox openAIJsonResponseFormatCheckBox;
 
     public SettingsComponent() {
         initTranslatorComponents();
@@ -151,6 +169,15 @@ public class SettingsComponent {
         } else {
             applyLink.setVisible(false);
         }
+
+        // The rate limits are configured for each translator.
+        SettingsState settingsState = SettingsState.getInstance();
+        setRequestsPerSecond(settingsState.getRequestsPerSecond(selected.getKey()));
+        setRequestBurst(settingsState.getRequestBurst(selected.getKey()));
+        setCharactersPerMinute(settingsState.getCharactersPerMinute(selected.getKey()));
+        setMaxConcurrentRequests(settingsState.getMaxConcurrentRequests(selected.getKey()));
+
+        openAIPanel.setVisible(selected instanceof ChatGPTTranslator);
     }
 
     public boolean isSelectedDefaultTranslator() {
@@ -206,4 +233,168 @@ public class SettingsComponent {
     public void setTranslationInterval(int intervalTime) {
         translationIntervalComboBox.setSelectedItem(String.valueOf(intervalTime));
     }
+
+    public int getTranslationConcurrency() {
+        return Integer.parseInt((String) Objects.requireNonNull(translationConcurrencyComboBox.getSelectedItem()));
+    }
+
+    public void setTranslationConcurrency(int concurrency) {
+        translationConcurrencyComboBox.setSelectedItem(String.valueOf(concurrency));
+    }
+
+    /**
+     * Returns the requests per second of the selected translator, or -1 if it is not a number.
+     */
+    public double getRequestsPerSecond() {
+        try {
+            return Double.parseDouble(requestsPerSecondField.getText().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        requestsPerSecondField.setText(BigDecimal.valueOf(requestsPerSecond).stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * Returns the request burst of the selected translator, or -1 if it is not a number.
+     */
+    public int getRequestBurst() {
+        return parseInt(requestBurstField);
+    }
+
+    public void setRequestBurst(int burst) {
+        requestBurstField.setText(String.valueOf(burst));
+    }
+
+    /**
+     * Returns the characters per minute of the selected translator, or -1 if it is not a number.
+     */
+    public int getCharactersPerMinute() {
+        return parseInt(charactersPerMinuteField);
+    }
+
+    public void setCharactersPerMinute(int charactersPerMinute) {
+        charactersPerMinuteField.setText(String.valueOf(charactersPerMinute));
+    }
+
+    /**
+     * Returns the maximum number of concurrent requests of the selected translator, or -1 if it is not a number.
+     */
+    public int getMaxConcurrentRequests() {
+        return parseInt(maxConcurrentRequestsField);
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        maxConcurrentRequestsField.setText(String.valueOf(maxConcurrentRequests));
+    }
+
+    /**
+     * Returns the connect timeout in seconds, or -1 if it is not a number.
+     */
+    public int getConnectTimeout() {
+        return parseInt(connectTimeoutField);
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        connectTimeoutField.setText(String.valueOf(connectTimeout));
+    }
+
+    /**
+     * Returns the read timeout in seconds, or -1 if it is not a number.
+     */
+    public int getReadTimeout() {
+        return parseInt(readTimeoutField);
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        readTimeoutField.setText(String.valueOf(readTimeout));
+    }
+
+    /**
+     * Returns the maximum number of attempts of a request, or -1 if it is not a number.
+     */
+    public int getRetryMaxAttempts() {
+        return parseInt(retryMaxAttemptsField);
+    }
+
+    public void setRetryMaxAttempts(int maxAttempts) {
+        retryMaxAttemptsField.setText(String.valueOf(maxAttempts));
+    }
+
+    /**
+     * Returns the backoff time of the first retry in milliseconds, or -1 if it is not a number.
+     */
+    public int getRetryInitialBackoff() {
+        return parseInt(retryInitialBackoffField);
+    }
+
+    public void setRetryInitialBackoff(int initialBackoff) {
+        retryInitialBackoffField.setText(String.valueOf(initialBackoff));
+    }
+
+    /**
+     * Returns the maximum backoff time of a retry in milliseconds, or -1 if it is not a number.
+     */
+    public int getRetryMaxBackoff() {
+        return parseInt(retryMaxBackoffField);
+    }
+
+    public void setRetryMaxBackoff(int maxBackoff) {
+        retryMaxBackoffField.setText(String.valueOf(maxBackoff));
+    }
+
+    public boolean isEnableHttp2() {
+        return enableHttp2CheckBox.isSelected();
+    }
+
+    public void setEnableHttp2(boolean isEnableHttp2) {
+        enableHttp2CheckBox.setSelected(isEnableHttp2);
+    }
+
+    @NotNull
+    public String getOpenAIBaseUrl() {
+        return openAIBaseUrlField.getText().trim();
+    }
+
+    public void setOpenAIBaseUrl(@NotNull String baseUrl) {
+        openAIBaseUrlField.setText(baseUrl);
+    }
+
+    @NotNull
+    public String getOpenAIModel() {
+        return openAIModelField.getText().trim();
+    }
+
+    public void setOpenAIModel(@NotNull String model) {
+        openAIModelField.setText(model);
+    }
+
+    /**
+     * Returns the maximum number of tokens of an OpenAI request, or -1 if it is not a number.
+     */
+    public int getOpenAIMaxTokens() {
+        return parseInt(openAIMaxTokensField);
+    }
+
+    public void setOpenAIMaxTokens(int maxTokens) {
+        openAIMaxTokensField.setText(String.valueOf(maxTokens));
+    }
+
+    public boolean isOpenAIJsonResponseFormat() {
+        return openAIJsonResponseFormatCheckBox.isSelected();
+    }
+
+    public void setOpenAIJsonResponseFormat(boolean isJsonResponseFormat) {
+        openAIJsonResponseFormatCheckBox.setSelected(isJsonResponseFormat);
+    }
+
+    private static int parseInt(@NotNull JBTextField field) {
+        try {
+            return Integer.parseInt(field.getText().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
@@ -20,6 +20,7 @@ package com.airsaid.localization.config;
 import com.airsaid.localization.constant.Constants;
 import com.airsaid.localization.translate.AbstractTranslator;
 import com.airsaid.localization.translate.services.TranslatorService;
+import com.airsaid.localization.translate.util.HttpClientPool;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.options.ConfigurationException;
@@ -63,6 +64,17 @@ public class SettingsConfigurable implements Configurable {
         settingsComponent.setEnableCache(settingsState.isEnableCache());
         settingsComponent.setMaxCacheSize(settingsState.getMaxCacheSize());
         settingsComponent.setTranslationInterval(settingsState.getTranslationInterval());
+        settingsComponent.setTranslationConcurrency(settingsState.getTranslationConcurrency());
+        settingsComponent.setConnectTimeout(settingsState.getConnectTimeout());
+        settingsComponent.setReadTimeout(settingsState.getReadTimeout());
+        settingsComponent.setRetryMaxAttempts(settingsState.getRetryMaxAttempts());
+        settingsComponent.setRetryInitialBackoff(settingsState.getRetryInitialBackoff());
+        settingsComponent.setRetryMaxBackoff(settingsState.getRetryMaxBackoff());
+        settingsComponent.setEnableHttp2(settingsState.isEnableHttp2());
+        settingsComponent.setOpenAIBaseUrl(settingsState.getOpenAIBaseUrl());
+        settingsComponent.setOpenAIModel(settingsState.getOpenAIModel());
+        settingsComponent.setOpenAIMaxTokens(settingsState.getOpenAIMaxTokens());
+        settingsComponent.setOpenAIJsonResponseFormat(settingsState.isOpenAIJsonResponseFormat());
     }
 
     @Override
@@ -75,6 +87,21 @@ public class SettingsConfigurable implements Configurable {
         isChanged |= settingsState.isEnableCache() == settingsComponent.isEnableCache();
         isChanged |= settingsState.getMaxCacheSize() == settingsComponent.getMaxCacheSize();
         isChanged |= settingsState.getTranslationInterval() == settingsComponent.getTranslationInterval();
+        isChanged |= settingsState.getTranslationConcurrency() == settingsComponent.getTranslationConcurrency();
+        isChanged |= settingsState.getRequestsPerSecond(selectedTranslator.getKey()) == settingsComponent.getRequestsPerSecond();
+        isChanged |= settingsState.getRequestBurst(selectedTranslator.getKey()) == settingsComponent.getRequestBurst();
+        isChanged |= settingsState.getCharactersPerMinute(selectedTranslator.getKey()) == settingsComponent.getCharactersPerMinute();
+        isChanged |= settingsState.getMaxConcurrentRequests(selectedTranslator.getKey()) == settingsComponent.getMaxConcurrentRequests();
+        isChanged |= settingsState.getConnectTimeout() == settingsComponent.getConnectTimeout();
+        isChanged |= settingsState.getReadTimeout() == settingsComponent.getReadTimeout();
+        isChanged |= settingsState.isEnableHttp2() == settingsComponent.isEnableHttp2();
+        isChanged |= settingsState.getRetryMaxAttempts() == settingsComponent.getRetryMaxAttempts();
+        isChanged |= settingsState.getRetryInitialBackoff() == settingsComponent.getRetryInitialBackoff();
+        isChanged |= settingsState.getRetryMaxBackoff() == settingsComponent.getRetryMaxBackoff();
+        isChanged |= settingsState.getOpenAIBaseUrl().equals(settingsComponent.getOpenAIBaseUrl());
+        isChanged |= settingsState.getOpenAIModel().equals(settingsComponent.getOpenAIModel());
+        isChanged |= settingsState.getOpenAIMaxTokens() == settingsComponent.getOpenAIMaxTokens();
+        isChanged |= settingsState.isOpenAIJsonResponseFormat() == settingsComponent.isOpenAIJsonResponseFormat();
         LOG.info("isModified: " + isChanged);
         return isChanged;
     }
@@ -92,6 +119,36 @@ public class SettingsConfigurable implements Configurable {
         if (selectedTranslator.isNeedAppKey() && StringUtil.isEmpty(settingsComponent.getAppKey())) {
             throw new ConfigurationException(selectedTranslator.getAppKeyDisplay() + " not configured");
         }
+        if (settingsComponent.getRequestsPerSecond() < 0) {
+            throw new ConfigurationException("Requests per second must be a number greater than or equal to 0");
+        }
+        if (settingsComponent.getRequestBurst() < 1) {
+            throw new ConfigurationException("Request burst must be a number greater than 0");
+        }
+        if (settingsComponent.getCharactersPerMinute() < 0) {
+            throw new ConfigurationException("Characters per minute must be a number greater than or equal to 0");
+        }
+        if (settingsComponent.getMaxConcurrentRequests() < 0) {
+            throw new ConfigurationException("Concurrent requests must be a number greater than or equal to 0");
+        }
+        if (settingsComponent.getOpenAIMaxTokens() < 1) {
+            throw new ConfigurationException("Maximum tokens must be a number greater than 0");
+        }
+        if (settingsComponent.getConnectTimeout() < 1) {
+            throw new ConfigurationException("Connect timeout must be a number greater than 0");
+        }
+        if (settingsComponent.getReadTimeout() < 1) {
+            throw new ConfigurationException("Read timeout must be a number greater than 0");
+        }
+        if (settingsComponent.getRetryMaxAttempts() < 1) {
+            throw new ConfigurationException("Max attempts must be a number greater than 0");
+        }
+        if (settingsComponent.getRetryInitialBackoff() < 1) {
+            throw new ConfigurationException("Retry backoff must be a number greater than 0");
+        }
+        if (settingsComponent.getRetryMaxBackoff() < settingsComponent.getRetryInitialBackoff()) {
+            throw new ConfigurationException("Max retry backoff must be a number greater than or equal to the retry backoff");
+        }
 
         settingsState.setSelectedTranslator(selectedTranslator);
         if (selectedTranslator.isNeedAppId()) {
@@ -100,15 +157,43 @@ public class SettingsConfigurable implements Configurable {
         if (selectedTranslator.isNeedAppKey()) {
             settingsState.setAppKey(selectedTranslator.getKey(), settingsComponent.getAppKey());
         }
+        String translatorKey = selectedTranslator.getKey();
+        // Keep following the translation interval until the rate of the translator is changed.
+        if (settingsState.getRequestsPerSecond(translatorKey) != settingsComponent.getRequestsPerSecond()) {
+            settingsState.setRequestsPerSecond(translatorKey, settingsComponent.getRequestsPerSecond());
+        }
+        settingsState.setRequestBurst(translatorKey, settingsComponent.getRequestBurst());
+        settingsState.setCharactersPerMinute(translatorKey, settingsComponent.getCharactersPerMinute());
+        settingsState.setMaxConcurrentRequests(translatorKey, settingsComponent.getMaxConcurrentRequests());
+        settingsState.setOpenAIBaseUrl(settingsComponent.getOpenAIBaseUrl());
+        settingsState.setOpenAIModel(settingsComponent.getOpenAIModel());
+        settingsState.setOpenAIMaxTokens(settingsComponent.getOpenAIMaxTokens());
+        settingsState.setOpenAIJsonResponseFormat(settingsComponent.isOpenAIJsonResponseFormat());
         settingsState.setEnableCache(settingsComponent.isEnableCache());
         settingsState.setMaxCacheSize(settingsComponent.getMaxCacheSize());
         settingsState.setTranslationInterval(settingsComponent.getTranslationInterval());
+        settingsState.setTranslationConcurrency(settingsComponent.getTranslationConcurrency());
+        // Replacing the clients closes their connections, so only do it when the network settings are changed.
+        boolean isNetworkChanged = settingsState.getConnectTimeout() != settingsComponent.getConnectTimeout()
+                || settingsState.getReadTimeout() != settingsComponent.getReadTimeout()
+                || settingsState.isEnableHttp2() != settingsComponent.isEnableHttp2();
+        settingsState.setConnectTimeout(settingsComponent.getConnectTimeout());
+        settingsState.setReadTimeout(settingsComponent.getReadTimeout());
+        settingsState.setEnableHttp2(settingsComponent.isEnableHttp2());
+        settingsState.setRetryMaxAttempts(settingsComponent.getRetryMaxAttempts());
+        settingsState.setRetryInitialBackoff(settingsComponent.getRetryInitialBackoff());
+        settingsState.setRetryMaxBackoff(settingsComponent.getRetryMaxBackoff());
 
         TranslatorService translatorService = TranslatorService.getInstance();
         translatorService.setSelectedTranslator(selectedTranslator);
         translatorService.setEnableCache(settingsComponent.isEnableCache());
         translatorService.setMaxCacheSize(settingsComponent.getMaxCacheSize());
-        translatorService.setTranslationInterval(settingsComponent.getTranslationInterval());
+        settingsState.applyRateLimits();
+        settingsState.applyRetryPolicy();
+        if (isNetworkChanged) {
+            HttpClientPool.getInstance().configure(settingsComponent.getConnectTimeout(),
+                    settingsComponent.getReadTimeout(), settingsComponent.isEnableHttp2());
+        }
     }
 
     @Override
@@ -122,6 +207,17 @@ public class SettingsConfigurable implements Configurable {
         settingsComponent.setEnableCache(settingsState.isEnableCache());
         settingsComponent.setMaxCacheSize(settingsState.getMaxCacheSize());
         settingsComponent.setTranslationInterval(settingsState.getTranslationInterval());
+        settingsComponent.setTranslationConcurrency(settingsState.getTranslationConcurrency());
+        settingsComponent.setConnectTimeout(settingsState.getConnectTimeout());
+        settingsComponent.setReadTimeout(settingsState.getReadTimeout());
+        settingsComponent.setRetryMaxAttempts(settingsState.getRetryMaxAttempts());
+        settingsComponent.setRetryInitialBackoff(settingsState.getRetryInitialBackoff());
+        settingsComponent.setRetryMaxBackoff(settingsState.getRetryMaxBackoff());
+        settingsComponent.setEnableHttp2(settingsState.isEnableHttp2());
+        settingsComponent.setOpenAIBaseUrl(settingsState.getOpenAIBaseUrl());
+        settingsComponent.setOpenAIModel(settingsState.getOpenAIModel());
+        settingsComponent.setOpenAIMaxTokens(settingsState.getOpenAIMaxTokens());
+        settingsComponent.setOpenAIJsonResponseFormat(settingsState.isOpenAIJsonResponseFormat());
     }
 
     @Override
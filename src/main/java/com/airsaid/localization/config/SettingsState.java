@@ -18,7 +18,9 @@
 package com.airsaid.localization.config;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.services.RetryPolicy;
 import com.airsaid.localization.translate.services.TranslatorService;
+import com.airsaid.localization.translate.util.HttpClientPool;
 import com.airsaid.localization.utils.SecureStorage;
 import com.intellij.openapi.components.*;
 import com.intellij.openapi.diagnostic.Logger;
@@ -42,6 +44,10 @@ public final class SettingsState implements PersistentStateComponent<SettingsSta
 
     private static final Logger LOG = Logger.getInstance(SettingsState.class);
 
+    private static final String DEFAULT_OPENAI_BASE_URL = "https://api.openai.com/v1";
+    private static final String DEFAULT_OPENAI_MODEL = "gpt-3.5-turbo";
+    private static final int DEFAULT_OPENAI_MAX_TOKENS = 4096;
+
     private final Map<String, SecureStorage> appKeyStorage;
 
     private State state = new State();
@@ -69,10 +75,32 @@ public final class SettingsState implements PersistentStateComponent<SettingsSta
             translatorService.setSelectedTranslator(getSelectedTranslator());
             translatorService.setEnableCache(isEnableCache());
             translatorService.setMaxCacheSize(getMaxCacheSize());
-            translatorService.setTranslationInterval(getTranslationInterval());
+            applyRateLimits();
+            applyRetryPolicy();
+            HttpClientPool.getInstance().configure(getConnectTimeout(), getReadTimeout(), isEnableHttp2());
+        }
+    }
+
+    /**
+     * Apply the rate limit and concurrency settings of each translator to the {@link TranslatorService}.
+     */
+    public void applyRateLimits() {
+        TranslatorService translatorService = TranslatorService.getInstance();
+        for (String translatorKey : translatorService.getTranslators().keySet()) {
+            translatorService.setRateLimit(translatorKey, getRequestsPerSecond(translatorKey),
+                    getRequestBurst(translatorKey), getCharactersPerMinute(translatorKey));
+            translatorService.setMaxConcurrentRequests(translatorKey, getMaxConcurrentRequests(translatorKey));
         }
     }
 
+    /**
+     * Apply the retry settings to the {@link TranslatorService}, they are shared by all translators.
+     */
+    public void applyRetryPolicy() {
+        TranslatorService.getInstance().setRetryPolicy(
+                new RetryPolicy(getRetryMaxAttempts(), getRetryInitialBackoff(), getRetryMaxBackoff()));
+    }
+
     public AbstractTranslator getSelectedTranslator() {
         return StringUtil.isEmpty(state.selectedTranslatorKey) ? TranslatorService.getInstance().getDefaultTranslator() :
                 TranslatorService.getInstance().getTranslators().get(state.selectedTranslatorKey);
@@ -129,6 +157,156 @@ public final class SettingsState implements PersistentStateComponent<SettingsSta
         state.translationInterval = intervalTime;
     }
 
+    /**
+     * Returns the number of requests per second of the translator. If not configured,
+     * one request is sent every {@link #getTranslationInterval()} seconds.
+     */
+    public double getRequestsPerSecond(@NotNull String translatorKey) {
+        Double requestsPerSecond = state.requestsPerSecond.get(translatorKey);
+        if (requestsPerSecond != null) {
+            return requestsPerSecond;
+        }
+        return state.translationInterval > 0 ? 1.0 / state.translationInterval : 0;
+    }
+
+    public void setRequestsPerSecond(@NotNull String translatorKey, double requestsPerSecond) {
+        state.requestsPerSecond.put(translatorKey, requestsPerSecond);
+    }
+
+    public int getRequestBurst(@NotNull String translatorKey) {
+        Integer burst = state.requestBursts.get(translatorKey);
+        return burst != null ? Math.max(1, burst) : 1;
+    }
+
+    public void setRequestBurst(@NotNull String translatorKey, int burst) {
+        state.requestBursts.put(translatorKey, burst);
+    }
+
+    public int getCharactersPerMinute(@NotNull String translatorKey) {
+        Integer charactersPerMinute = state.charactersPerMinute.get(translatorKey);
+        return charactersPerMinute != null ? charactersPerMinute : 0;
+    }
+
+    public void setCharactersPerMinute(@NotNull String translatorKey, int charactersPerMinute) {
+        state.charactersPerMinute.put(translatorKey, charactersPerMinute);
+    }
+
+    public int getMaxConcurrentRequests(@NotNull String translatorKey) {
+        Integer maxConcurrentRequests = state.maxConcurrentRequests.get(translatorKey);
+        return maxConcurrentRequests != null ? maxConcurrentRequests : 0;
+    }
+
+    public void setMaxConcurrentRequests(@NotNull String translatorKey, int maxConcurrentRequests) {
+        state.maxConcurrentRequests.put(translatorKey, maxConcurrentRequests);
+    }
+
+    public int getTranslationConcurrency() {
+        return Math.max(1, state.translationConcurrency);
+    }
+
+    public void setTranslationConcurrency(int concurrency) {
+        state.translationConcurrency = concurrency;
+    }
+
+    public int getConnectTimeout() {
+        return state.connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        state.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return state.readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        state.readTimeout = readTimeout;
+    }
+
+    /**
+     * Returns the maximum number of attempts of a failed request, including the first one.
+     */
+    public int getRetryMaxAttempts() {
+        return state.retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int maxAttempts) {
+        state.retryMaxAttempts = maxAttempts;
+    }
+
+    /**
+     * Returns the backoff time of the first retry in milliseconds, which is doubled for each following retry.
+     */
+    public int getRetryInitialBackoff() {
+        return state.retryInitialBackoff;
+    }
+
+    public void setRetryInitialBackoff(int initialBackoff) {
+        state.retryInitialBackoff = initialBackoff;
+    }
+
+    public int getRetryMaxBackoff() {
+        return state.retryMaxBackoff;
+    }
+
+    public void setRetryMaxBackoff(int maxBackoff) {
+        state.retryMaxBackoff = maxBackoff;
+    }
+
+    public boolean isEnableHttp2() {
+        return state.isEnableHttp2;
+    }
+
+    public void setEnableHttp2(boolean isEnableHttp2) {
+        state.isEnableHttp2 = isEnableHttp2;
+    }
+
+    /**
+     * Returns the base URL of the OpenAI API, or of a compatible server, e.g. {@code http://192.168.1.2:8000/v1}.
+     */
+    @NotNull
+    public String getOpenAIBaseUrl() {
+        return StringUtil.isEmptyOrSpaces(state.openAIBaseUrl) ? DEFAULT_OPENAI_BASE_URL : state.openAIBaseUrl.trim();
+    }
+
+    public void setOpenAIBaseUrl(@Nullable String baseUrl) {
+        state.openAIBaseUrl = baseUrl;
+    }
+
+    @NotNull
+    public String getOpenAIModel() {
+        return StringUtil.isEmptyOrSpaces(state.openAIModel) ? DEFAULT_OPENAI_MODEL : state.openAIModel.trim();
+    }
+
+    public void setOpenAIModel(@Nullable String model) {
+        state.openAIModel = model;
+    }
+
+    /**
+     * Returns the maximum number of tokens of an OpenAI request, which is the context size of the model
+     * that is shared by the prompt and the reply.
+     */
+    public int getOpenAIMaxTokens() {
+        return state.openAIMaxTokens > 0 ? state.openAIMaxTokens : DEFAULT_OPENAI_MAX_TOKENS;
+    }
+
+    public void setOpenAIMaxTokens(int maxTokens) {
+        state.openAIMaxTokens = maxTokens;
+    }
+
+    /**
+     * Returns whether the OpenAI requests ask for a JSON object reply with the {@code response_format} parameter,
+     * which is not supported by some compatible servers.
+     */
+    public boolean isOpenAIJsonResponseFormat() {
+        return state.isOpenAIJsonResponseFormat;
+    }
+
+    public void setOpenAIJsonResponseFormat(boolean isJsonResponseFormat) {
+        state.isOpenAIJsonResponseFormat = isJsonResponseFormat;
+    }
+
     @Override
     public @Nullable SettingsState.State getState() {
         return state;
@@ -145,5 +323,20 @@ public final class SettingsState implements PersistentStateComponent<SettingsSta
         public boolean isEnableCache = true;
         public int maxCacheSize = 500;
         public int translationInterval = 2; // 2 second
+        public int translationConcurrency = 1; // number of languages translated at the same time
+        public Map<String, Double> requestsPerSecond = new HashMap<>(); // falls back to translationInterval
+        public Map<String, Integer> requestBursts = new HashMap<>();
+        public Map<String, Integer> charactersPerMinute = new HashMap<>(); // 0 means unlimited
+        public Map<String, Integer> maxConcurrentRequests = new HashMap<>(); // 0 means unlimited
+        public int connectTimeout = 60; // 60 second
+        public int readTimeout = 60; // 60 second
+        public boolean isEnableHttp2 = true;
+        public int retryMaxAttempts = 6; // including the first attempt
+        public int retryInitialBackoff = 1000; // 1 second
+        public int retryMaxBackoff = 60 * 1000; // 60 second
+        public String openAIBaseUrl = DEFAULT_OPENAI_BASE_URL;
+        public String openAIModel = DEFAULT_OPENAI_MODEL;
+        public int openAIMaxTokens = DEFAULT_OPENAI_MAX_TOKENS;
+        public boolean isOpenAIJsonResponseFormat = true;
     }
 }
@@ -26,6 +26,7 @@ import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -34,12 +35,17 @@ import org.jetbrains.annotations.Nullable;
 
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.utils.MyXmlPsiUtil;
+import com.airsaid.localization.values.ValueNode;
+import com.airsaid.localization.values.ValuesDocument;
+import com.airsaid.localization.values.ValuesParser;
+import com.airsaid.localization.values.ValuesRenderer;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -136,6 +142,101 @@ public final class AndroidValuesService {
         });
     }
 
+    /**
+     * Take a snapshot of the values loaded by {@link #loadValues(PsiFile)} with a single read action, the snapshot
+     * can be used on any thread without touching the PSI again.
+     * <p>
+     * If the values are not well-formed, the entries are taken from the PSI, see {@link #snapshotEntries(Computable)}.
+     *
+     * @param values the children of the {@code resources} tag of a value file.
+     * @return the snapshot of the values.
+     */
+    @NotNull
+    public ValuesDocument snapshotValues(@NotNull List<PsiElement> values) {
+        String xml = ApplicationManager.getApplication().runReadAction((Computable<String>) () -> {
+            StringBuilder sb = new StringBuilder();
+            for (PsiElement value : values) {
+                sb.append(value.getText());
+            }
+            return sb.toString();
+        });
+        if (xml.isEmpty()) {
+            xml = RESOURCES_START_TAG + RESOURCES_END_TAG;
+        }
+        try {
+            return ValuesParser.parse(xml);
+        } catch (IOException e) {
+            LOG.warn("The values are not well-formed, take the entries from the PSI.", e);
+            return snapshotEntries(() -> {
+                PsiElement parent = values.get(0).getParent();
+                return parent instanceof XmlTag ? (XmlTag) parent : null;
+            });
+        }
+    }
+
+    /**
+     * Take a snapshot of the value file with a single read action.
+     * <p>
+     * If the value file is not well-formed, the entries are taken from the PSI, see {@link #snapshotEntries(Computable)}.
+     *
+     * @param valueFile the value file.
+     * @return the snapshot of the value file.
+     */
+    @NotNull
+    public ValuesDocument snapshotValues(@NotNull PsiFile valueFile) {
+        String xml = ApplicationManager.getApplication().runReadAction((Computable<String>) valueFile::getText);
+        LOG.info("snapshotValues valueFile: " + valueFile.getName());
+        try {
+            return ValuesParser.parse(xml);
+        } catch (IOException e) {
+            LOG.warn(valueFile.getName() + " is not well-formed, take the entries from the PSI.", e);
+            return snapshotEntries(() -> {
+                XmlDocument document = ((XmlFile) valueFile).getDocument();
+                return document != null ? document.getRootTag() : null;
+            });
+        }
+    }
+
+    /**
+     * Take a snapshot of the entries found by the PSI, which tolerates the XML that is not well-formed.
+     * The entries are parsed one by one, and the broken entries are kept as they are, so the other entries
+     * can still be translated, see {@link ValuesParser#parse(String, String, List)}.
+     *
+     * @param rootTagGetter returns the {@code resources} tag, called in the read action.
+     * @return the snapshot of the entries.
+     */
+    @NotNull
+    private ValuesDocument snapshotEntries(@NotNull Computable<XmlTag> rootTagGetter) {
+        return ApplicationManager.getApplication().runReadAction((Computable<ValuesDocument>) () -> {
+            XmlTag rootTag = rootTagGetter.compute();
+            if (rootTag == null) {
+                return ValuesParser.parse(RESOURCES_START_TAG, RESOURCES_END_TAG, Collections.emptyList());
+            }
+            String text = rootTag.getText();
+            int rootOffset = rootTag.getTextRange().getStartOffset();
+            TextRange contentRange = rootTag.getValue().getTextRange();
+            int contentStart = contentRange.getStartOffset() - rootOffset;
+            int contentEnd = contentRange.getEndOffset() - rootOffset;
+            List<String> fragments = new ArrayList<>();
+            int offset = contentStart;
+            for (XmlTag subTag : rootTag.getSubTags()) {
+                int start = subTag.getTextRange().getStartOffset() - rootOffset;
+                int end = subTag.getTextRange().getEndOffset() - rootOffset;
+                if (start > offset) {
+                    fragments.add(text.substring(offset, start));
+                }
+                fragments.add(text.substring(start, end));
+                offset = end;
+            }
+            if (contentEnd > offset) {
+                fragments.add(text.substring(offset, contentEnd));
+            }
+            // The end tag is missing if the resources tag is not closed.
+            String endTag = contentEnd < text.length() ? text.substring(contentEnd) : RESOURCES_END_TAG;
+            return ValuesParser.parse(text.substring(0, contentStart), endTag, fragments);
+        });
+    }
+
     private List<PsiElement> parseValuesXml(@NotNull PsiFile valueFile) {
         return parseValuesXml((XmlFile) valueFile);
     }
@@ -156,12 +257,13 @@ public final class AndroidValuesService {
     }
 
     /**
-     * Write {@link PsiElement} collection data to the specified file.
+     * Write the values document to the specified file.
      *
-     * @param values    specified {@link PsiElement} collection data.
-     * @param valueFile specified file.
+     * @param document   the values document.
+     * @param valueFile  specified file.
+     * @param appendMode true: append the children of the document to the existing {@code resources} tag of the file.
      */
-    public void writeValueFile(@NotNull List<PsiElement> values, @NotNull File valueFile, final boolean appendMode) {
+    public void writeValueFile(@NotNull ValuesDocument document, @NotNull File valueFile, final boolean appendMode) {
         boolean isCreateSuccess = FileUtil.createIfDoesntExist(valueFile);
         if (!isCreateSuccess) {
             LOG.error("Failed to write to " + valueFile.getPath() + " file: create failed!");
@@ -177,7 +279,7 @@ public final class AndroidValuesService {
                         if (index < 0) {
                             break func;
                         }
-                        appendWrite(valueFile, index, values);
+                        appendWrite(valueFile, index, document);
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -185,9 +287,7 @@ public final class AndroidValuesService {
                 }
             }
             try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(valueFile, false), StandardCharsets.UTF_8))) {
-                for (PsiElement value : values) {
-                    bw.write(value.getText());
-                }
+                ValuesRenderer.render(document, bw);
                 bw.flush();
             } catch (IOException e) {
                 e.printStackTrace();
@@ -196,7 +296,7 @@ public final class AndroidValuesService {
         }));
     }
 
-    private void appendWrite(@NotNull File valueFile, long index, @NotNull List<PsiElement> values) throws IOException {
+    private void appendWrite(@NotNull File valueFile, long index, @NotNull ValuesDocument document) throws IOException {
         if (index < 0) {
             return;
         }
@@ -209,24 +309,13 @@ public final class AndroidValuesService {
         }
         try (RandomAccessFile raf = new RandomAccessFile(valueFile, "rw")) {
             raf.seek(index);
+            // The children of the document replace the end tag of the existing resources tag.
             StringBuilder sb = new StringBuilder();
-            boolean verified = false;
-            for (int i = 0; i < values.size(); i++) {
-                final String text = values.get(i).getText();
-                if (i < 3) {
-                    sb.append(text);
-                    continue;
-                } else {
-                    if (!verified && !sb.toString().trim().equals(RESOURCES_START_TAG)) {
-                        raf.write(sb.toString().getBytes(StandardCharsets.UTF_8));
-                        verified = true;
-                    } else {
-                        // no write <resource> tag
-                        verified = true;
-                    }
-                }
-                raf.write(text.getBytes(StandardCharsets.UTF_8));
+            for (ValueNode node : document.getNodes()) {
+                sb.append(ValuesRenderer.render(node));
             }
+            sb.append(document.getEndTag());
+            raf.write(sb.toString().getBytes(StandardCharsets.UTF_8));
         }
     }
 
@@ -335,17 +424,4 @@ public final class AndroidValuesService {
     private String getValuesDirectoryName(@NotNull Lang lang) {
         return "values-".concat(lang.getCode());
     }
-
-    /**
-     * Returns whether the specified xml tag (string entry) needs to be translated.
-     *
-     * @param xmlTag the specified xml tag of string entry.
-     * @return true: need translation. false: no translation is needed.
-     */
-    public boolean isTranslatable(@NotNull XmlTag xmlTag) {
-        return ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> {
-            String translatableStr = xmlTag.getAttributeValue("translatable");
-            return Boolean.parseBoolean(translatableStr == null ? "true" : translatableStr);
-        });
-    }
 }
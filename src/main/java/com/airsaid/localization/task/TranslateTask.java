@@ -17,13 +17,17 @@
 
 package com.airsaid.localization.task;
 
+import com.airsaid.localization.config.SettingsState;
 import com.airsaid.localization.constant.Constants;
 import com.airsaid.localization.services.AndroidValuesService;
 import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
 import com.airsaid.localization.translate.services.TranslatorService;
+import com.airsaid.localization.translate.util.BatchUtil;
 import com.airsaid.localization.utils.TextUtil;
+import com.airsaid.localization.values.ValueNode;
+import com.airsaid.localization.values.ValuesDocument;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
@@ -31,22 +35,20 @@ import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.xml.*;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.function.Function;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -54,20 +56,23 @@ import java.util.stream.Collectors;
  */
 public class TranslateTask extends Task.Backgroundable {
 
-    private static final String NAME_TAG_STRING = "string";
-    private static final String NAME_TAG_PLURALS = "plurals";
-    private static final String NAME_TAG_STRING_ARRAY = "string-array";
+    // The maximum number of chunks of a language that are translated at the same time.
+    private static final int MAX_IN_FLIGHT_CHUNKS = 4;
 
     private static final Logger LOG = Logger.getInstance(TranslateTask.class);
 
     private final List<Lang> mToLanguages;
-    private final List<PsiElement> mValues;
+    private final List<PsiElement> mValueElements;
     private final VirtualFile mValueFile;
     private final TranslatorService mTranslatorService;
     private final AndroidValuesService mValueService;
 
+    private final AtomicReference<TranslationException> mTranslationError = new AtomicReference<>();
+
+    // The snapshot of the values, the translation does not touch the PSI of the values after it is taken.
+    private ValuesDocument mValues;
     private OnTranslateListener mOnTranslateListener;
-    private TranslationException mTranslationError;
+    private double[] mLanguageFractions;
     private boolean appendMode = false;
 
     public interface OnTranslateListener {
@@ -80,7 +85,7 @@ public class TranslateTask extends Task.Backgroundable {
                          List<PsiElement> values, PsiFile valueFile) {
         super(project, title);
         mToLanguages = languages;
-        mValues = values;
+        mValueElements = values;
         mValueFile = valueFile.getVirtualFile();
         mTranslatorService = TranslatorService.getInstance();
         mValueService = AndroidValuesService.getInstance();
@@ -103,136 +108,379 @@ public class TranslateTask extends Task.Backgroundable {
     public void run(@NotNull ProgressIndicator progressIndicator) {
         boolean isOverwriteExistingString = PropertiesComponent.getInstance(myProject)
                 .getBoolean(Constants.KEY_IS_OVERWRITE_EXISTING_STRING);
-        LOG.info("run isOverwriteExistingString: " + isOverwriteExistingString);
+        int concurrency = SettingsState.getInstance().getTranslationConcurrency();
+        boolean isMultiTarget = mTranslatorService.isSupportMultiTarget() && mToLanguages.size() > 1;
+        LOG.info("run isOverwriteExistingString: " + isOverwriteExistingString + ", concurrency: " + concurrency +
+                ", isMultiTarget: " + isMultiTarget);
+
+        mValues = mValueService.snapshotValues(mValueElements);
+
+        progressIndicator.setIndeterminate(false);
+        progressIndicator.setFraction(0);
+        mLanguageFractions = new double[mToLanguages.size()];
+
+        if (isMultiTarget) {
+            translateMultiTarget(progressIndicator, concurrency, isOverwriteExistingString);
+        } else {
+            translateLanguages(progressIndicator, Math.min(concurrency, mToLanguages.size()), isOverwriteExistingString);
+        }
+
+        TranslationException error = mTranslationError.get();
+        if (error != null) {
+            throw error;
+        }
+    }
 
-        for (Lang toLanguage : mToLanguages) {
+    private void translateLanguages(@NotNull ProgressIndicator progressIndicator, int concurrency, boolean isOverwrite) {
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "AndroidLocalize TranslateTask", Math.max(1, concurrency));
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < mToLanguages.size(); i++) {
+            final int index = i;
+            futures.add(executor.submit(() -> {
+                // If an exception occurs during the translation of a language,
+                // the languages that have not been started are not translated anymore.
+                if (progressIndicator.isCanceled() || mTranslationError.get() != null) return;
+                LanguageTranslation translation = new LanguageTranslation(progressIndicator, index);
+                prepare(translation, isOverwrite);
+                doTranslate(translation);
+                finish(translation);
+            }));
+        }
+        executor.shutdown();
+        awaitLanguages(progressIndicator, executor, futures);
+    }
+
+    /**
+     * Translate all languages together when the translator can translate a text into multiple languages
+     * with a single request: the texts are iterated in the outer loop, and each request covers all languages
+     * that need the texts. Up to {@code concurrency} requests are in flight at the same time.
+     */
+    private void translateMultiTarget(@NotNull ProgressIndicator progressIndicator, int concurrency, boolean isOverwrite) {
+        List<LanguageTranslation> translations = new ArrayList<>();
+        for (int i = 0; i < mToLanguages.size(); i++) {
             if (progressIndicator.isCanceled()) break;
+            LanguageTranslation translation = new LanguageTranslation(progressIndicator, i);
+            prepare(translation, isOverwrite);
+            translations.add(translation);
+        }
 
-            progressIndicator.setText("Translation to " + toLanguage.getEnglishName() + "...");
-
-            VirtualFile resourceDir = mValueFile.getParent().getParent();
-            String valueFileName = mValueFile.getName();
-            PsiFile toValuePsiFile = mValueService.getValuePsiFile(myProject, resourceDir, toLanguage, valueFileName);
-            LOG.info("Translating language: " + toLanguage.getEnglishName() + ", toValuePsiFile: " + toValuePsiFile);
-            if (toValuePsiFile != null) {
-                List<PsiElement> toValues = mValueService.loadValues(toValuePsiFile);
-                Map<String, PsiElement> toValuesMap = toValues.stream().collect(Collectors.toMap(
-                        psiElement -> {
-                            if (psiElement instanceof XmlTag)
-                                return ApplicationManager.getApplication().runReadAction((Computable<String>) () ->
-                                        ((XmlTag) psiElement).getAttributeValue("name"));
-                            else return UUID.randomUUID().toString();
-                        },
-                        Function.identity()
-                ));
-                List<PsiElement> translatedValues = doTranslate(progressIndicator, toLanguage, toValuesMap, isOverwriteExistingString);
-                writeTranslatedValues(progressIndicator, new File(toValuePsiFile.getVirtualFile().getPath()), translatedValues);
-            } else {
-                List<PsiElement> translatedValues = doTranslate(progressIndicator, toLanguage, null, isOverwriteExistingString);
-                File valueFile = mValueService.getValueFile(resourceDir, toLanguage, valueFileName);
-                writeTranslatedValues(progressIndicator, valueFile, translatedValues);
+        // Group the texts by the languages that need them, so that every request covers the same languages.
+        Map<String, List<LanguageTranslation>> textLanguages = new LinkedHashMap<>();
+        for (LanguageTranslation translation : translations) {
+            for (String text : translation.getPendingTexts()) {
+                List<LanguageTranslation> languages = textLanguages.computeIfAbsent(text, key -> new ArrayList<>());
+                if (!languages.contains(translation)) {
+                    languages.add(translation);
+                }
             }
-            // If an exception occurs during the translation of the language,
-            // the translation of the subsequent languages is terminated.
-            // This prevents the loss of successfully translated strings in that language.
-            if (mTranslationError != null) {
-                throw mTranslationError;
+        }
+        Map<List<LanguageTranslation>, List<String>> groups = new LinkedHashMap<>();
+        textLanguages.forEach((text, languages) -> groups.computeIfAbsent(languages, key -> new ArrayList<>()).add(text));
+
+        List<MultiTargetChunk> chunks = new ArrayList<>();
+        groups.forEach((languages, texts) -> {
+            // The texts of a request are translated into every language, so the byte limit depends on the languages.
+            for (List<String> chunk : BatchUtil.chunk(texts, mTranslatorService.getMaxBatchSize(),
+                    mTranslatorService.getMaxBatchBytes(languages.size()))) {
+                chunks.add(new MultiTargetChunk(languages, chunk));
             }
+        });
+
+        translateChunks(progressIndicator, Math.max(1, concurrency), translations, chunks, textLanguages.size());
+
+        for (LanguageTranslation translation : translations) {
+            finish(translation);
         }
     }
 
-    private List<PsiElement> doTranslate(@NotNull ProgressIndicator progressIndicator,
-                                         @NotNull Lang toLanguage,
-                                         @Nullable Map<String, PsiElement> toValues,
-                                         boolean isOverwrite) {
-        LOG.info("doTranslate toLanguage: " + toLanguage.getEnglishName() + ", toValues: " + toValues + ", isOverwrite: " + isOverwrite);
-
-        List<PsiElement> translatedValues = new ArrayList<>();
-        final int totalSize = mValues == null ? 0 : mValues.size();
+    /**
+     * Translate the chunks of the multiple languages, keep several chunks in flight,
+     * the results are applied in order on this thread. The texts translated before their chunks complete,
+     * e.g. by a streamed reply, are applied as soon as they are received.
+     */
+    private void translateChunks(@NotNull ProgressIndicator progressIndicator,
+                                 int maxInFlightChunks,
+                                 @NotNull List<LanguageTranslation> translations,
+                                 @NotNull List<MultiTargetChunk> chunks,
+                                 int totalSize) {
+        Map<Lang, LanguageTranslation> languageTranslations = new HashMap<>();
+        for (LanguageTranslation translation : translations) {
+            languageTranslations.put(translation.toLanguage, translation);
+        }
+        Queue<Pair<Lang, Pair<String, String>>> receivedTexts = new ConcurrentLinkedQueue<>();
+        Deque<MultiTargetChunk> inFlightChunks = new ArrayDeque<>();
+        Iterator<MultiTargetChunk> iterator = chunks.iterator();
         int count = 0;
-        for (PsiElement value : mValues) {
-            if (progressIndicator.isCanceled()) break;
-            String progressText = "(" + (++count) + "/" + totalSize + ")";
-            progressIndicator
-                    .setText("Translation to " + toLanguage.getEnglishName() + progressText + "...");
-            if (value instanceof XmlTag) {
-                XmlTag xmlTag = (XmlTag) value;
-                if (!mValueService.isTranslatable(xmlTag)) {
-                    // translatedValues.add(value);
-                    continue;
+        while (iterator.hasNext() || !inFlightChunks.isEmpty()) {
+            // Keep the texts already received, even if the rest of their chunks fails or the task is cancelled.
+            commitReceivedTexts(languageTranslations, receivedTexts);
+            if (progressIndicator.isCanceled()) {
+                // Cancelling the futures aborts their requests in progress.
+                inFlightChunks.forEach(chunk -> chunk.future.cancel(false));
+                break;
+            }
+            if (iterator.hasNext() && inFlightChunks.size() < maxInFlightChunks) {
+                MultiTargetChunk chunk = iterator.next();
+                chunk.future = mTranslatorService.doTranslateAsync(Languages.AUTO, chunk.toLanguages, chunk.texts,
+                        (toLang, text, translatedText) -> receivedTexts.add(Pair.create(toLang, Pair.create(text, translatedText))));
+                inFlightChunks.add(chunk);
+                continue;
+            }
+            progressIndicator.setText("Translation to " + translations.size() + " languages(" + count + "/" + totalSize + ")...");
+            MultiTargetChunk chunk = inFlightChunks.peek();
+            try {
+                Map<Lang, List<String>> translatedTexts = chunk.future.get(100, TimeUnit.MILLISECONDS);
+                for (LanguageTranslation translation : chunk.languages) {
+                    translation.setTranslatedTexts(chunk.texts, translatedTexts.get(translation.toLanguage));
                 }
+            } catch (TimeoutException e) {
+                continue;
+            } catch (InterruptedException e) {
+                inFlightChunks.forEach(inFlightChunk -> inFlightChunk.future.cancel(false));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!(cause instanceof TranslationException)) {
+                    inFlightChunks.forEach(inFlightChunk -> inFlightChunk.future.cancel(false));
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IllegalStateException(cause);
+                }
+                LOG.warn(cause);
+                // Just catch the error and wait for the files to be translated and released.
+                mTranslationError.compareAndSet(null, (TranslationException) cause);
+            }
+            inFlightChunks.remove();
+            count += chunk.texts.size();
+            for (LanguageTranslation translation : translations) {
+                translation.setFraction((double) count / totalSize);
+            }
+        }
+        commitReceivedTexts(languageTranslations, receivedTexts);
+    }
 
-                String name = ApplicationManager.getApplication().runReadAction((Computable<String>) () ->
-                        xmlTag.getAttributeValue("name")
-                );
-                if (!isOverwrite && toValues != null && toValues.containsKey(name)) {
-                    translatedValues.add(toValues.get(name));
-                    continue;
+    /**
+     * The version of {@link #commitReceivedTexts(LanguageTranslation, Queue, Set)} for the texts of multiple languages.
+     */
+    private void commitReceivedTexts(@NotNull Map<Lang, LanguageTranslation> languageTranslations,
+                                     @NotNull Queue<Pair<Lang, Pair<String, String>>> receivedTexts) {
+        Pair<Lang, Pair<String, String>> receivedText;
+        while ((receivedText = receivedTexts.poll()) != null) {
+            languageTranslations.get(receivedText.first)
+                    .setTranslatedTexts(List.of(receivedText.second.first), List.of(receivedText.second.second));
+        }
+    }
+
+    private void awaitLanguages(@NotNull ProgressIndicator progressIndicator,
+                                @NotNull ExecutorService executor,
+                                @NotNull List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    if (progressIndicator.isCanceled()) {
+                        // The languages in progress observe the cancellation and finish by themselves.
+                        futures.forEach(f -> f.cancel(false));
+                        executor.awaitTermination(1, TimeUnit.MINUTES);
+                        return;
+                    }
+                    future.get(100, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException ignored) {
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IllegalStateException(cause);
                 }
+            }
+        }
+    }
 
-                XmlTag translateValue = ApplicationManager.getApplication().runReadAction((Computable<XmlTag>) () ->
-                        (XmlTag) xmlTag.copy()
-                );
-                translatedValues.add(translateValue);
-                switch (translateValue.getName()) {
-                    case NAME_TAG_STRING:
-                        doTranslate(progressIndicator, toLanguage, translateValue);
-                        break;
-                    case NAME_TAG_STRING_ARRAY:
-                    case NAME_TAG_PLURALS:
-                        XmlTag[] subTags = ApplicationManager.getApplication()
-                                .runReadAction((Computable<XmlTag[]>) translateValue::getSubTags);
-                        for (XmlTag subTag : subTags) {
-                            doTranslate(progressIndicator, toLanguage, subTag);
-                        }
-                        break;
+    /**
+     * Load the existing value file of the language, and collect the texts to be translated.
+     */
+    private void prepare(@NotNull LanguageTranslation translation, boolean isOverwrite) {
+        Lang toLanguage = translation.toLanguage;
+        translation.setText("Translation to " + toLanguage.getEnglishName() + "...");
+
+        VirtualFile resourceDir = mValueFile.getParent().getParent();
+        String valueFileName = mValueFile.getName();
+        PsiFile toValuePsiFile = mValueService.getValuePsiFile(myProject, resourceDir, toLanguage, valueFileName);
+        LOG.info("Translating language: " + toLanguage.getEnglishName() + ", toValuePsiFile: " + toValuePsiFile);
+        Map<String, ValueNode> toValuesMap = null;
+        if (toValuePsiFile != null) {
+            toValuesMap = new HashMap<>();
+            for (ValueNode toValue : mValueService.snapshotValues(toValuePsiFile).getEntries()) {
+                if (toValue.getName() != null) {
+                    toValuesMap.putIfAbsent(toValue.getName(), toValue);
                 }
-            } else {
-                translatedValues.add(value);
             }
+            translation.valueFile = new File(toValuePsiFile.getVirtualFile().getPath());
+        } else {
+            translation.valueFile = mValueService.getValueFile(resourceDir, toLanguage, valueFileName);
         }
-        return translatedValues;
+        translation.journal = TranslationJournal.load(mValueFile, mTranslatorService.getSelectedTranslator().getKey(), toLanguage);
+        collectValues(translation, toValuesMap, isOverwrite);
+        // Reuse the texts translated by the previous run that was cancelled or failed.
+        translation.resume();
     }
 
-    private void doTranslate(@NotNull ProgressIndicator progressIndicator,
-                             @NotNull Lang toLanguage,
-                             @NotNull XmlTag xmlTag) {
-        if (progressIndicator.isCanceled() || isXliffTag(xmlTag)) return;
-
-        XmlTagValue xmlTagValue = ApplicationManager.getApplication()
-                .runReadAction((Computable<XmlTagValue>) xmlTag::getValue);
-        XmlTagChild[] children = xmlTagValue.getChildren();
-        for (XmlTagChild child : children) {
-            if (child instanceof XmlText) {
-                XmlText xmlText = (XmlText) child;
-                String text = ApplicationManager.getApplication()
-                        .runReadAction((Computable<String>) xmlText::getValue);
-                if (TextUtil.isEmptyOrSpacesLineBreak(text)) {
+    private void collectValues(@NotNull LanguageTranslation translation,
+                               @Nullable Map<String, ValueNode> toValues,
+                               boolean isOverwrite) {
+        LOG.info("collectValues toLanguage: " + translation.toLanguage.getEnglishName() + ", toValues: " + toValues + ", isOverwrite: " + isOverwrite);
+
+        for (ValueNode value : mValues.getNodes()) {
+            if (translation.isCanceled()) break;
+            if (!value.isEntry()) {
+                translation.addValue(value);
+                continue;
+            }
+            if (!value.isTranslatable()) {
+                continue;
+            }
+
+            String name = value.getName();
+            // The strings written without a complete translation by the previous run are translated again.
+            if (!isOverwrite && name != null && toValues != null && toValues.containsKey(name) && !translation.journal.isPending(name)) {
+                translation.addValue(toValues.get(name));
+                continue;
+            }
+            translation.addTranslatedValue(value);
+        }
+    }
+
+    private void doTranslate(@NotNull LanguageTranslation translation) {
+        Lang toLanguage = translation.toLanguage;
+        List<String> texts = translation.getPendingTexts();
+        // Send the texts in chunks, translators that support batch translation
+        // translate a chunk with a single request, the others translate one text at a time.
+        List<List<String>> chunks = BatchUtil.chunk(texts,
+                mTranslatorService.getMaxBatchSize(), mTranslatorService.getMaxBatchBytes());
+        final int totalSize = texts.size();
+        // The texts translated before their chunks complete, e.g. by a streamed reply.
+        Queue<Pair<String, String>> receivedTexts = new ConcurrentLinkedQueue<>();
+        Set<String> committedTexts = new HashSet<>();
+        // Keep several chunks in flight, the results are applied in order on this thread.
+        Deque<Pair<List<String>, CompletableFuture<List<String>>>> inFlightChunks = new ArrayDeque<>();
+        Iterator<List<String>> iterator = chunks.iterator();
+        while (iterator.hasNext() || !inFlightChunks.isEmpty()) {
+            if (translation.isCanceled()) {
+                inFlightChunks.forEach(chunk -> chunk.second.cancel(false));
+                // Keep the texts already received from the cancelled chunks.
+                commitReceivedTexts(translation, receivedTexts, committedTexts);
+                break;
+            }
+            if (iterator.hasNext() && inFlightChunks.size() < MAX_IN_FLIGHT_CHUNKS) {
+                List<String> chunk = iterator.next();
+                inFlightChunks.add(Pair.create(chunk, mTranslatorService.doTranslateAsync(Languages.AUTO, toLanguage, chunk,
+                        (text, translatedText) -> receivedTexts.add(Pair.create(text, translatedText)))));
+                continue;
+            }
+            translation.setText("Translation to " + toLanguage.getEnglishName() + "(" + committedTexts.size() + "/" + totalSize + ")...");
+            Pair<List<String>, CompletableFuture<List<String>>> chunk = inFlightChunks.peek();
+            try {
+                List<String> translatedTexts = awaitChunk(translation, chunk.second);
+                commitReceivedTexts(translation, receivedTexts, committedTexts);
+                if (translatedTexts == null) {
+                    translation.setFraction((double) committedTexts.size() / totalSize);
                     continue;
                 }
-                try {
-                    String translatedText = mTranslatorService.doTranslate(Languages.AUTO, toLanguage, text);
-                    ApplicationManager.getApplication().runReadAction(() -> xmlText.setValue(translatedText));
-                } catch (TranslationException e) {
-                    LOG.warn(e);
-                    // Just catch the error and wait for that file to be translated and released.
-                    mTranslationError = e;
-                }
-            } else if (child instanceof XmlTag) {
-                doTranslate(progressIndicator, toLanguage, (XmlTag) child);
+                translation.setTranslatedTexts(chunk.first, translatedTexts);
+            } catch (TranslationException e) {
+                LOG.warn(e);
+                // Just catch the error and wait for that file to be translated and released.
+                translation.error = e;
             }
+            inFlightChunks.remove();
+            committedTexts.addAll(chunk.first);
+            translation.setFraction((double) committedTexts.size() / totalSize);
+        }
+    }
+
+    /**
+     * Set the texts that were translated before their chunks complete, so that they are kept
+     * even if the rest of the chunk fails or the task is cancelled.
+     */
+    private void commitReceivedTexts(@NotNull LanguageTranslation translation,
+                                     @NotNull Queue<Pair<String, String>> receivedTexts,
+                                     @NotNull Set<String> committedTexts) {
+        Pair<String, String> receivedText;
+        while ((receivedText = receivedTexts.poll()) != null) {
+            translation.setTranslatedTexts(List.of(receivedText.first), List.of(receivedText.second));
+            committedTexts.add(receivedText.first);
         }
     }
 
-    private void writeTranslatedValues(@NotNull ProgressIndicator progressIndicator,
+    /**
+     * Wait for the translated texts of a chunk.
+     *
+     * @return the translated texts, or null if the chunk is not translated within a short time,
+     * so that the caller can check the cancellation.
+     */
+    @Nullable
+    private List<String> awaitChunk(@NotNull LanguageTranslation translation,
+                                    @NotNull CompletableFuture<List<String>> future) {
+        try {
+            return future.get(100, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslationException(Languages.AUTO, translation.toLanguage, "", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslationException) throw (TranslationException) cause;
+            throw new TranslationException(Languages.AUTO, translation.toLanguage, "", cause);
+        }
+    }
+
+    /**
+     * Write the translated values of the language to its value file.
+     */
+    private void finish(@NotNull LanguageTranslation translation) {
+        writeTranslatedValues(translation, translation.valueFile, translation.getTranslatedValues());
+        updateJournal(translation);
+        translation.setFraction(1);
+        // Failed strings of this language are still written above,
+        // this prevents the loss of successfully translated strings in that language.
+        if (translation.error != null) {
+            mTranslationError.compareAndSet(null, translation.error);
+        }
+    }
+
+    /**
+     * Keep the journal of the language until all of its strings are translated and written, so that
+     * running the translation again only translates the remaining texts.
+     */
+    private void updateJournal(@NotNull LanguageTranslation translation) {
+        TranslationJournal journal = translation.journal;
+        if (translation.isCanceled()) {
+            // Nothing is written to the value file, the pending strings of the previous run remain pending.
+            journal.save();
+            return;
+        }
+        Set<String> pendingNames = translation.getPendingNames();
+        if (pendingNames.isEmpty()) {
+            journal.delete();
+        } else {
+            journal.setPendingNames(pendingNames);
+            journal.save();
+        }
+    }
+
+    private void writeTranslatedValues(@NotNull LanguageTranslation translation,
                                        @NotNull File valueFile,
-                                       @NotNull List<PsiElement> translatedValues) {
+                                       @NotNull List<ValueNode> translatedValues) {
         LOG.info("writeTranslatedValues valueFile: " + valueFile + ", translatedValues: " + translatedValues);
 
-        if (progressIndicator.isCanceled() || translatedValues.isEmpty()) return;
+        if (translation.isCanceled() || translatedValues.isEmpty()) return;
 
-        progressIndicator.setText("Writing to " + valueFile.getParentFile().getName() + " data...");
-        mValueService.writeValueFile(translatedValues, valueFile, appendMode);
+        translation.setText("Writing to " + valueFile.getParentFile().getName() + " data...");
+        mValueService.writeValueFile(mValues.withNodes(translatedValues), valueFile, appendMode);
 
         refreshAndOpenFile(valueFile);
     }
@@ -247,8 +495,165 @@ public class TranslateTask extends Task.Backgroundable {
         }
     }
 
-    private boolean isXliffTag(XmlTag xmlTag) {
-        return xmlTag != null && "xliff:g".equals(xmlTag.getName());
+    private synchronized void updateFraction(@NotNull ProgressIndicator progressIndicator, int index, double fraction) {
+        mLanguageFractions[index] = fraction;
+        double total = 0;
+        for (double languageFraction : mLanguageFractions) {
+            total += languageFraction;
+        }
+        progressIndicator.setFraction(total / mLanguageFractions.length);
+    }
+
+    /**
+     * The texts of a request that are translated into multiple languages.
+     */
+    private static class MultiTargetChunk {
+        private final List<LanguageTranslation> languages;
+        private final List<Lang> toLanguages;
+        private final List<String> texts;
+        private CompletableFuture<Map<Lang, List<String>>> future;
+
+        MultiTargetChunk(@NotNull List<LanguageTranslation> languages, @NotNull List<String> texts) {
+            this.languages = languages;
+            this.toLanguages = languages.stream().map(translation -> translation.toLanguage).collect(Collectors.toList());
+            this.texts = texts;
+        }
+    }
+
+    /**
+     * The translation state of a single language. Its progress is aggregated into the progress indicator of the task,
+     * so that the languages translated at the same time can share one progress bar.
+     */
+    private class LanguageTranslation {
+        private final ProgressIndicator progressIndicator;
+        private final int index;
+        private final Lang toLanguage;
+        private final List<ValueNode> values = new ArrayList<>();
+        // The texts of the values to be translated, keyed by the indices of the values.
+        private final Map<Integer, String[]> valueTexts = new HashMap<>();
+        private final List<Pair<Integer, Integer>> textPositions = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> textNames = new ArrayList<>();
+        private final Map<String, List<Integer>> textIndices = new LinkedHashMap<>();
+        private final BitSet translatedIndices = new BitSet();
+        private File valueFile;
+        private TranslationJournal journal;
+        private TranslationException error;
+
+        LanguageTranslation(@NotNull ProgressIndicator progressIndicator, int index) {
+            this.progressIndicator = progressIndicator;
+            this.index = index;
+            this.toLanguage = mToLanguages.get(index);
+        }
+
+        boolean isCanceled() {
+            return progressIndicator.isCanceled();
+        }
+
+        void setText(@NotNull String text) {
+            progressIndicator.setText(text);
+        }
+
+        void setFraction(double fraction) {
+            updateFraction(progressIndicator, index, fraction);
+        }
+
+        /**
+         * Add a value that is written as it is.
+         */
+        void addValue(@NotNull ValueNode value) {
+            values.add(value);
+        }
+
+        /**
+         * Add a value whose texts are translated, the texts that are blank are kept as they are.
+         */
+        void addTranslatedValue(@NotNull ValueNode value) {
+            int valueIndex = values.size();
+            values.add(value);
+            List<String> nodeTexts = value.getTexts();
+            if (nodeTexts.isEmpty()) return;
+
+            valueTexts.put(valueIndex, nodeTexts.toArray(new String[0]));
+            String name = Objects.requireNonNullElse(value.getName(), "");
+            for (int i = 0; i < nodeTexts.size(); i++) {
+                String text = nodeTexts.get(i);
+                if (TextUtil.isEmptyOrSpacesLineBreak(text)) {
+                    continue;
+                }
+                textIndices.computeIfAbsent(text, key -> new ArrayList<>()).add(texts.size());
+                textPositions.add(Pair.create(valueIndex, i));
+                texts.add(text);
+                textNames.add(name);
+            }
+        }
+
+        /**
+         * Returns the values to be written, with the translated texts.
+         */
+        @NotNull
+        List<ValueNode> getTranslatedValues() {
+            List<ValueNode> translatedValues = new ArrayList<>(values);
+            valueTexts.forEach((index, texts) -> translatedValues.set(index, values.get(index).withTexts(Arrays.asList(texts))));
+            return translatedValues;
+        }
+
+        void setTranslatedText(int index, @NotNull String translatedText) {
+            Pair<Integer, Integer> position = textPositions.get(index);
+            valueTexts.get(position.first)[position.second] = translatedText;
+            translatedIndices.set(index);
+            journal.putTranslation(texts.get(index), translatedText);
+        }
+
+        /**
+         * Set the texts that were translated by the previous run of this language.
+         */
+        void resume() {
+            textIndices.forEach((text, indices) -> {
+                String translatedText = journal.getTranslation(text);
+                if (translatedText != null) {
+                    indices.forEach(index -> setTranslatedText(index, translatedText));
+                }
+            });
+        }
+
+        /**
+         * Returns the distinct texts that have not been translated yet.
+         */
+        List<String> getPendingTexts() {
+            List<String> pendingTexts = new ArrayList<>();
+            textIndices.forEach((text, indices) -> {
+                if (!translatedIndices.get(indices.get(0))) {
+                    pendingTexts.add(text);
+                }
+            });
+            return pendingTexts;
+        }
+
+        /**
+         * Returns the names of the strings that have texts not translated.
+         */
+        Set<String> getPendingNames() {
+            Set<String> pendingNames = new LinkedHashSet<>();
+            for (int i = 0; i < texts.size(); i++) {
+                if (!translatedIndices.get(i)) {
+                    pendingNames.add(textNames.get(i));
+                }
+            }
+            return pendingNames;
+        }
+
+        /**
+         * Set the translated texts to all places of this language that use the source texts.
+         */
+        void setTranslatedTexts(@NotNull List<String> sourceTexts, @NotNull List<String> translatedTexts) {
+            for (int i = 0; i < sourceTexts.size(); i++) {
+                for (int index : textIndices.getOrDefault(sourceTexts.get(i), List.of())) {
+                    setTranslatedText(index, translatedTexts.get(i));
+                }
+            }
+            journal.saveIfNeeded();
+        }
     }
 
     @Override
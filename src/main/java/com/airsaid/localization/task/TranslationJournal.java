@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.task;
+
+import com.airsaid.localization.translate.lang.Lang;
+import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.MD5;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The journal of the translation of a value file into a language, which makes the translation resumable.
+ * <p>
+ * It records the texts that have been translated, and the names of the strings that were written to
+ * the target file without a complete translation. When the translation is run again after it was
+ * cancelled or failed, only the texts that were not translated yet are sent to the translator.
+ * The journal is saved from time to time while translating, and deleted once the translation succeeds.
+ *
+ * @author airsaid
+ */
+public class TranslationJournal {
+
+    private static final Logger LOG = Logger.getInstance(TranslationJournal.class);
+
+    private static final String JOURNAL_DIR = "androidLocalize" + File.separator + "journals";
+    private static final long SAVE_INTERVAL_MILLIS = 5000;
+
+    private final File file;
+    private final long saveIntervalMillis;
+    private Journal journal = new Journal();
+    private boolean isModified;
+    private long lastSaveTime = System.currentTimeMillis();
+
+    TranslationJournal(@NotNull File file) {
+        this(file, SAVE_INTERVAL_MILLIS);
+    }
+
+    TranslationJournal(@NotNull File file, long saveIntervalMillis) {
+        this.file = file;
+        this.saveIntervalMillis = saveIntervalMillis;
+        if (file.exists()) {
+            try {
+                String json = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+                Journal journal = GsonUtil.getInstance().getGson().fromJson(json, Journal.class);
+                if (journal != null) {
+                    this.journal = journal;
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to read the translation journal: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Load the journal of the translation of the value file into the language. Each translator has its own journal,
+     * so the translations of another translator are not reused.
+     *
+     * @param translatorKey the key of the translator, see {@link com.airsaid.localization.translate.AbstractTranslator#getKey()}.
+     */
+    @NotNull
+    public static TranslationJournal load(@NotNull VirtualFile valueFile, @NotNull String translatorKey, @NotNull Lang toLang) {
+        String fileName = MD5.md5(valueFile.getPath() + "_" + translatorKey + "_" + toLang.getCode()) + ".json";
+        return new TranslationJournal(new File(PathManager.getSystemPath(), JOURNAL_DIR + File.separator + fileName));
+    }
+
+    @Nullable
+    public synchronized String getTranslation(@NotNull String text) {
+        return journal.translations.get(text);
+    }
+
+    public synchronized void putTranslation(@NotNull String text, @NotNull String translation) {
+        journal.translations.put(text, translation);
+        isModified = true;
+    }
+
+    /**
+     * Returns whether the string was written to the target file without a complete translation.
+     */
+    public synchronized boolean isPending(@NotNull String name) {
+        return journal.pendingNames.contains(name);
+    }
+
+    public synchronized void setPendingNames(@NotNull Collection<String> names) {
+        journal.pendingNames = new LinkedHashSet<>(names);
+        isModified = true;
+    }
+
+    /**
+     * Save the journal if it is modified and has not been saved for a while, so that the translated texts are kept
+     * even if the IDE exits during the translation, without writing the whole journal for every chunk.
+     */
+    public synchronized void saveIfNeeded() {
+        if (isModified && System.currentTimeMillis() - lastSaveTime >= saveIntervalMillis) {
+            save();
+        }
+    }
+
+    public synchronized void save() {
+        isModified = false;
+        lastSaveTime = System.currentTimeMillis();
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Failed to create directory: " + parent);
+            }
+            Files.writeString(file.toPath(), GsonUtil.getInstance().getGson().toJson(journal), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Failed to write the translation journal: " + file, e);
+        }
+    }
+
+    public synchronized void delete() {
+        journal = new Journal();
+        isModified = false;
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Failed to delete the translation journal: " + file);
+        }
+    }
+
+    private static class Journal {
+        private Map<String, String> translations = new LinkedHashMap<>();
+        private Set<String> pendingNames = new LinkedHashSet<>();
+    }
+}
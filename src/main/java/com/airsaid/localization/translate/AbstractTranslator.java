@@ -19,17 +19,33 @@ package com.airsaid.localization.translate;
 
 import com.airsaid.localization.config.SettingsState;
 import com.airsaid.localization.translate.lang.Lang;
+import com.airsaid.localization.translate.util.HttpClientPool;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Pair;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.io.HttpRequests;
-import com.intellij.util.io.RequestBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -41,42 +57,359 @@ public abstract class AbstractTranslator implements Translator, TranslatorConfig
 
     private static final String CONTENT_TYPE = "application/x-www-form-urlencoded";
 
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    // DeepL responds with this status code when the character quota is exceeded.
+    private static final int HTTP_QUOTA_EXCEEDED = 456;
+
     @Override
     public String doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) throws TranslationException {
         checkSupportedLanguages(fromLang, toLang, text);
 
-        String requestUrl = getRequestUrl(fromLang, toLang, text);
-        RequestBuilder requestBuilder = HttpRequests.post(requestUrl, CONTENT_TYPE);
-        // Set the timeout time to 60 seconds.
-        requestBuilder.connectTimeout(60 * 1000);
-        configureRequestBuilder(requestBuilder);
+        return doRequest(fromLang, toLang, text,
+                getRequestUrl(fromLang, toLang, text),
+                () -> getRequestParams(fromLang, toLang, text),
+                () -> getRequestBody(fromLang, toLang, text),
+                resultReader -> parsingResult(fromLang, toLang, text, resultReader));
+    }
 
+    /**
+     * Invoke translation operation without blocking, the request is sent with the asynchronous HTTP client,
+     * so no thread waits for the response.
+     * <p>
+     * Translators that override {@link #doTranslate(Lang, Lang, String)} without the request hooks of this
+     * class should override this method too, e.g. with {@link #supplyAsync(Supplier)}.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<String> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         try {
-            return requestBuilder.connect(request -> {
-                String requestParams = getRequestParams(fromLang, toLang, text)
-                        .stream()
-                        .map(pair -> {
-                            return pair.first.concat("=").concat(URLEncoder.encode(pair.second, StandardCharsets.UTF_8));
-                        })
-                        .collect(Collectors.joining("&"));
-                if (!requestParams.isEmpty()) {
-                    request.write(requestParams);
-                }
-                String requestBody = getRequestBody(fromLang, toLang, text);
-                if (!requestBody.isEmpty()) {
-                    request.write(requestBody);
+            checkSupportedLanguages(fromLang, toLang, text);
+
+            return doRequestAsync(fromLang, toLang, text,
+                    getRequestUrl(fromLang, toLang, text),
+                    () -> getRequestParams(fromLang, toLang, text),
+                    () -> getRequestBody(fromLang, toLang, text),
+                    resultReader -> parsingResult(fromLang, toLang, text, resultReader));
+        } catch (TranslationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Invoke translation operation of multiple texts with a single request.
+     * <p>
+     * Only the translators that implement {@link BatchTranslator} and the batch versions of
+     * {@link #getRequestParams(Lang, Lang, List)}, {@link #getRequestBody(Lang, Lang, List)}
+     * and {@link #parsingResults(Lang, Lang, List, Reader)} support this operation.
+     */
+    @NotNull
+    public List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        return requestBatch(fromLang, toLang, texts);
+    }
+
+    /**
+     * The asynchronous version of {@link #doTranslate(Lang, Lang, List)}.
+     * <p>
+     * Translators that override {@link #doTranslate(Lang, Lang, List)} without the request hooks of this
+     * class should override this method too, e.g. with {@link #supplyAsync(Supplier)}.
+     */
+    @NotNull
+    public CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return requestBatchAsync(fromLang, toLang, texts);
+    }
+
+    /**
+     * Translate the texts as the lines of a single text, for the engines that translate a text with multiple lines
+     * line by line. The batch versions of the request hooks receive the texts that can be joined with
+     * {@link #joinLines(List)}, and the parsing hook throws {@link BatchMismatchException} if the translated lines
+     * can not be matched to the texts, the texts are then translated one by one.
+     * <p>
+     * The texts that contain line breaks or are blank can not be told apart from the lines of the other texts,
+     * so they are always translated one by one.
+     */
+    @NotNull
+    protected List<String> doTranslateLines(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        String[] results = new String[texts.size()];
+        List<Integer> lineIndices = getLineIndices(texts);
+        if (lineIndices.size() > 1) {
+            List<String> lines = lineIndices.stream().map(texts::get).collect(Collectors.toList());
+            try {
+                List<String> lineResults = requestBatch(fromLang, toLang, lines);
+                for (int i = 0; i < lineIndices.size(); i++) {
+                    results[lineIndices.get(i)] = lineResults.get(i);
                 }
+            } catch (BatchMismatchException e) {
+                LOG.info("doTranslateLines mismatched results, translate the texts one by one: " + lines.size());
+            }
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            if (results[i] == null) {
+                results[i] = doTranslate(fromLang, toLang, texts.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
 
-                String resultText = request.readString();
-                return parsingResult(fromLang, toLang, text, resultText);
+    /**
+     * The asynchronous version of {@link #doTranslateLines(Lang, Lang, List)}. The texts that are not translated
+     * by the request of the lines are not translated here, the future fails with {@link IncompleteBatchException}
+     * instead, so that the caller translates them one by one within its rate limits.
+     */
+    @NotNull
+    protected CompletableFuture<List<String>> doTranslateLinesAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        String[] results = new String[texts.size()];
+        List<Integer> lineIndices = getLineIndices(texts);
+        CompletableFuture<Void> linesFuture = CompletableFuture.completedFuture(null);
+        if (lineIndices.size() > 1) {
+            List<String> lines = lineIndices.stream().map(texts::get).collect(Collectors.toList());
+            linesFuture = requestBatchAsync(fromLang, toLang, lines).handle((lineResults, error) -> {
+                if (error == null) {
+                    for (int i = 0; i < lineIndices.size(); i++) {
+                        results[lineIndices.get(i)] = lineResults.get(i);
+                    }
+                    return null;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!(cause instanceof BatchMismatchException)) {
+                    throw new CompletionException(cause);
+                }
+                LOG.info("doTranslateLines mismatched results, translate the texts one by one: " + lines.size());
+                return null;
             });
+        }
+        return linesFuture.thenApply(ignored -> {
+            List<String> translatedTexts = Arrays.asList(results);
+            if (translatedTexts.contains(null)) {
+                throw new IncompleteBatchException(fromLang, toLang, joinLines(texts), translatedTexts);
+            }
+            return translatedTexts;
+        });
+    }
+
+    /**
+     * Returns the indices of the texts that can be joined as lines.
+     */
+    @NotNull
+    private static List<Integer> getLineIndices(@NotNull List<String> texts) {
+        List<Integer> lineIndices = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (!text.isBlank() && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                lineIndices.add(i);
+            }
+        }
+        return lineIndices;
+    }
+
+    /**
+     * Join the texts into the lines of a single text.
+     */
+    @NotNull
+    protected static String joinLines(@NotNull List<String> texts) {
+        return String.join("\n", texts);
+    }
+
+    @NotNull
+    private List<String> requestBatch(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        String text = joinLines(texts);
+        checkSupportedLanguages(fromLang, toLang, text);
+
+        List<String> results = doRequest(fromLang, toLang, text,
+                getRequestUrl(fromLang, toLang, texts),
+                () -> getRequestParams(fromLang, toLang, texts),
+                () -> getRequestBody(fromLang, toLang, texts),
+                resultReader -> parsingResults(fromLang, toLang, texts, resultReader));
+        checkResultsSize(fromLang, toLang, texts, results);
+        return results;
+    }
+
+    @NotNull
+    private CompletableFuture<List<String>> requestBatchAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        String text = joinLines(texts);
+        try {
+            checkSupportedLanguages(fromLang, toLang, text);
+
+            return doRequestAsync(fromLang, toLang, text,
+                    getRequestUrl(fromLang, toLang, texts),
+                    () -> getRequestParams(fromLang, toLang, texts),
+                    () -> getRequestBody(fromLang, toLang, texts),
+                    resultReader -> {
+                        List<String> results = parsingResults(fromLang, toLang, texts, resultReader);
+                        checkResultsSize(fromLang, toLang, texts, results);
+                        return results;
+                    });
+        } catch (TranslationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void checkResultsSize(@NotNull Lang fromLang, @NotNull Lang toLang,
+                                         @NotNull List<String> texts, @NotNull List<String> results) {
+        if (results.size() != texts.size()) {
+            throw new TranslationException(fromLang, toLang, String.join("\n", texts),
+                    "Expected " + texts.size() + " results, but got " + results.size());
+        }
+    }
+
+    /**
+     * Run a blocking translation on the application thread pool, for the translators
+     * that can not send their requests with the asynchronous HTTP client.
+     */
+    @NotNull
+    protected static <T> CompletableFuture<T> supplyAsync(@NotNull Supplier<T> translation) {
+        return CompletableFuture.supplyAsync(translation, AppExecutorUtil.getAppExecutorService());
+    }
+
+    protected <T> T doRequest(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                            @NotNull String requestUrl,
+                            @NotNull Supplier<List<Pair<String, String>>> requestParamsSupplier,
+                            @NotNull Supplier<String> requestBodySupplier,
+                            @NotNull ResultReader<T> resultReader) throws TranslationException {
+        try {
+            HttpRequest request = newRequest(requestUrl, requestParamsSupplier, requestBodySupplier);
+            HttpResponse<InputStream> response = HttpClientPool.getInstance().send(request, HttpResponse.BodyHandlers.ofInputStream());
+            // The result is parsed while the response is being received.
+            try (Reader reader = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+                checkResponseCode(fromLang, toLang, text, requestUrl, response);
+                return resultReader.read(reader);
+            }
+        } catch (TranslationException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslationException(fromLang, toLang, text, e);
         } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error(e.getMessage(), e);
+            // The transient failures are retried, so they are not reported as the errors of the IDE.
+            LOG.warn(e.getMessage(), e);
             throw new TranslationException(fromLang, toLang, text, e);
         }
     }
 
+    /**
+     * The asynchronous version of {@link #doRequest(Lang, Lang, String, String, Supplier, Supplier, ResultReader)}.
+     * No thread is blocked while waiting for the response headers, then the result is parsed on the application
+     * thread pool while the rest of the response is being received, so the response is not held in memory.
+     * <p>
+     * Cancelling the returned future stops reading and closes the response stream, which aborts the request.
+     */
+    @NotNull
+    protected <T> CompletableFuture<T> doRequestAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                                                      @NotNull String requestUrl,
+                                                      @NotNull Supplier<List<Pair<String, String>>> requestParamsSupplier,
+                                                      @NotNull Supplier<String> requestBodySupplier,
+                                                      @NotNull ResultReader<T> resultReader) {
+        HttpRequest request;
+        try {
+            request = newRequest(requestUrl, requestParamsSupplier, requestBodySupplier);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(toTranslationException(fromLang, toLang, text, e));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        HttpClientPool.getInstance()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .whenCompleteAsync((response, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(toTranslationException(fromLang, toLang, text,
+                                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+                        return;
+                    }
+                    try (Reader reader = new CancellableReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8), result)) {
+                        checkResponseCode(fromLang, toLang, text, requestUrl, response);
+                        result.complete(resultReader.read(reader));
+                    } catch (Throwable e) {
+                        if (!result.isDone()) {
+                            result.completeExceptionally(toTranslationException(fromLang, toLang, text, e));
+                        }
+                    }
+                }, AppExecutorUtil.getAppExecutorService());
+        return result;
+    }
+
+    /**
+     * The version of {@link #doRequestAsync(Lang, Lang, String, String, Supplier, Supplier, ResultReader)}
+     * for the responses that are generated gradually, e.g. server-sent events, the result reader can report
+     * the parsed parts before the response finishes.
+     */
+    @NotNull
+    protected <T> CompletableFuture<T> doStreamingRequestAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                                                               @NotNull String requestUrl,
+                                                               @NotNull Supplier<List<Pair<String, String>>> requestParamsSupplier,
+                                                               @NotNull Supplier<String> requestBodySupplier,
+                                                               @NotNull ResultReader<T> resultReader) {
+        return doRequestAsync(fromLang, toLang, text, requestUrl, requestParamsSupplier, requestBodySupplier, resultReader);
+    }
+
+    @NotNull
+    private HttpRequest newRequest(@NotNull String requestUrl,
+                                   @NotNull Supplier<List<Pair<String, String>>> requestParamsSupplier,
+                                   @NotNull Supplier<String> requestBodySupplier) {
+        String requestParams = requestParamsSupplier.get()
+                .stream()
+                .map(pair -> {
+                    return pair.first.concat("=").concat(URLEncoder.encode(pair.second, StandardCharsets.UTF_8));
+                })
+                .collect(Collectors.joining("&"));
+        String requestBody = requestBodySupplier.get();
+
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(requestUrl))
+                .timeout(HttpClientPool.getInstance().getReadTimeout())
+                .setHeader("Content-Type", CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(requestParams.concat(requestBody), StandardCharsets.UTF_8));
+        configureRequest(requestBuilder);
+        return requestBuilder.build();
+    }
+
+    @NotNull
+    private static TranslationException toTranslationException(@NotNull Lang fromLang, @NotNull Lang toLang,
+                                                               @NotNull String text, @NotNull Throwable e) {
+        if (e instanceof TranslationException) {
+            return (TranslationException) e;
+        }
+        LOG.warn(e.getMessage(), e);
+        return new TranslationException(fromLang, toLang, text, e);
+    }
+
+    private void checkResponseCode(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                                   @NotNull String requestUrl, @NotNull HttpResponse<?> response) throws IOException {
+        int responseCode = response.statusCode();
+        if (responseCode < HttpURLConnection.HTTP_BAD_REQUEST) return;
+
+        if (responseCode == HTTP_QUOTA_EXCEEDED) {
+            // Retrying can not succeed until the quota is reset, so the translation fails immediately.
+            throw new TranslationException(fromLang, toLang, text,
+                    "Quota exceeded, status code: " + responseCode + ", please check the usage of your account.");
+        }
+        long retryAfterMillis = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+        if (responseCode == HTTP_TOO_MANY_REQUESTS ||
+                (responseCode == HttpURLConnection.HTTP_UNAVAILABLE && retryAfterMillis >= 0)) {
+            throw new TranslationRateLimitException(fromLang, toLang, text,
+                    "Rate limit exceeded, status code: " + responseCode, retryAfterMillis);
+        }
+        throw new HttpRequests.HttpStatusException("Request failed with status code " + responseCode, responseCode, requestUrl);
+    }
+
+    /**
+     * Parse the value of the {@code Retry-After} header, which is either a number of seconds or an HTTP date.
+     *
+     * @return the time in milliseconds to wait, or -1 if the value is absent or invalid.
+     */
+    static long parseRetryAfter(@Nullable String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (DateTimeParseException ignored) {
+            return -1;
+        }
+    }
+
     @Override
     public @Nullable Icon getIcon() {
         return null;
@@ -117,22 +450,43 @@ public abstract class AbstractTranslator implements Translator, TranslatorConfig
         return null;
     }
 
+    @Override
+    public @NotNull String getModelVersion() {
+        return "";
+    }
+
     @NotNull
     public String getRequestUrl(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         throw new UnsupportedOperationException();
     }
 
+    @NotNull
+    public String getRequestUrl(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        // The request url of most translators does not depend on the text.
+        return getRequestUrl(fromLang, toLang, texts.get(0));
+    }
+
     @NotNull
     public List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         return List.of();
     }
 
+    @NotNull
+    public List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return List.of();
+    }
+
     @NotNull
     public String getRequestBody(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         return "";
     }
 
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
+    @NotNull
+    public String getRequestBody(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return "";
+    }
+
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
 
     }
 
@@ -141,6 +495,91 @@ public abstract class AbstractTranslator implements Translator, TranslatorConfig
         throw new UnsupportedOperationException();
     }
 
+    @NotNull
+    public List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull String resultText) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Parse the result from the response stream. The default implementation reads the whole response
+     * and calls {@link #parsingResult(Lang, Lang, String, String)}, translators with large responses
+     * should extract the translated text from the stream instead, e.g. with {@link JsonStreamUtil}.
+     */
+    @NotNull
+    public String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        return parsingResult(fromLang, toLang, text, readString(resultReader));
+    }
+
+    /**
+     * Parse the results of multiple texts from the response stream. The default implementation reads the whole
+     * response and calls {@link #parsingResults(Lang, Lang, List, String)}, translators should extract the
+     * translated texts from the stream instead, e.g. with {@link JsonStreamUtil}.
+     */
+    @NotNull
+    public List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        return parsingResults(fromLang, toLang, texts, readString(resultReader));
+    }
+
+    @NotNull
+    protected static String readString(@NotNull Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8192];
+        int length;
+        while ((length = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, length);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Thrown by the batch versions of the parsing hooks when the results can not be matched to the texts of the request,
+     * e.g. when the engine merges or splits the lines of the texts.
+     */
+    protected static class BatchMismatchException extends TranslationException {
+        public BatchMismatchException(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+            super(fromLang, toLang, text, "The translations do not match the texts of the request.");
+        }
+    }
+
+    /**
+     * Read the result from the response stream.
+     */
+    @FunctionalInterface
+    public interface ResultReader<T> {
+        T read(@NotNull Reader reader) throws IOException;
+    }
+
+    /**
+     * The reader of a streamed response that stops reading once the request is cancelled, the cancellation
+     * is noticed when the next part of the response arrives.
+     */
+    private static class CancellableReader extends FilterReader {
+        private final CompletableFuture<?> request;
+
+        CancellableReader(@NotNull Reader reader, @NotNull CompletableFuture<?> request) {
+            super(reader);
+            this.request = request;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            return super.read();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            checkCancelled();
+            return super.read(buffer, offset, length);
+        }
+
+        private void checkCancelled() throws InterruptedIOException {
+            if (request.isCancelled()) {
+                throw new InterruptedIOException("The request is cancelled.");
+            }
+        }
+    }
+
     protected void checkSupportedLanguages(Lang fromLang, Lang toLang, String text) {
         List<Lang> supportedLanguages = getSupportedLanguages();
         if (!supportedLanguages.contains(toLang)) {
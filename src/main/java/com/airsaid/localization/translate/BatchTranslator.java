@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate;
+
+import com.airsaid.localization.translate.lang.Lang;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The translator that can translate multiple texts with a single request.
+ * <p>
+ * Translators that don't implement this interface are called once per text.
+ *
+ * @author airsaid
+ * @see Translator
+ */
+public interface BatchTranslator extends Translator {
+
+    /**
+     * Invoke translation operation of multiple texts.
+     *
+     * @param fromLang the language of texts.
+     * @param toLang   the language to be translated into.
+     * @param texts    the texts to be translated, no more than {@link #getMaxBatchSize()} texts
+     *                 and {@link #getMaxBatchBytes()} bytes.
+     * @return the translated texts, in the same order as the given texts.
+     * @throws TranslationException this exception is thrown if the translation failed.
+     */
+    @NotNull
+    List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException;
+
+    /**
+     * Returns the maximum number of texts of a single request.
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Returns the maximum number of UTF-8 bytes of all texts of a single request.
+     */
+    int getMaxBatchBytes();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate;
+
+import com.airsaid.localization.translate.lang.Lang;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a batch request only translates some of the texts, e.g. when the translated lines of the texts
+ * can not be matched to the texts. The caller should translate the remaining texts one by one, which lets each
+ * request go through the rate limits and be retried on its own.
+ *
+ * @author airsaid
+ */
+public class IncompleteBatchException extends TranslationException {
+
+    private final List<String> results;
+
+    /**
+     * @param results the translated texts, in the same order as the texts of the request,
+     *                null for the texts that are not translated.
+     */
+    public IncompleteBatchException(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                                    @NotNull List<String> results) {
+        super(fromLang, toLang, text, "Only translated some of the texts of the request.");
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+
+    @NotNull
+    public List<String> getResults() {
+        return results;
+    }
+}
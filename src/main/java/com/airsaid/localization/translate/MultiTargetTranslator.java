@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate;
+
+import com.airsaid.localization.translate.lang.Lang;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The translator that can translate texts into multiple languages with a single submission.
+ *
+ * @author airsaid
+ * @see Translator
+ */
+public interface MultiTargetTranslator extends Translator {
+
+    /**
+     * Invoke translation operation into multiple languages.
+     *
+     * @param fromLang    the language of texts.
+     * @param toLanguages the languages to be translated into.
+     * @param texts       the texts to be translated. If the translator is not a {@link BatchTranslator},
+     *                    there is only one text, otherwise the texts are within the {@link BatchTranslator#getMaxBatchSize()}
+     *                    and {@link #getMaxBatchBytes(int)} limits of the number of target languages.
+     * @return the translated texts of each target language, in the same order as the given texts.
+     * @throws TranslationException this exception is thrown if the translation failed.
+     */
+    @NotNull
+    Map<Lang, List<String>> doTranslate(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts) throws TranslationException;
+
+    /**
+     * The asynchronous version of {@link #doTranslate(Lang, List, List)}, cancelling the returned future
+     * aborts the request in progress.
+     *
+     * @return the future of the translated texts of each target language, which completes exceptionally
+     * with a {@link TranslationException} if the translation failed.
+     */
+    @NotNull
+    CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts);
+
+    /**
+     * The version of {@link #doTranslateAsync(Lang, List, List)} that reports the translations of each text
+     * as soon as they are received, e.g. from a streamed reply, before the whole request completes.
+     *
+     * @param listener the listener of the translations of each text, called on the thread that receives the response.
+     * @return the future of the translated texts of each target language, in the same order as the given texts.
+     */
+    @NotNull
+    CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts,
+                                                                @NotNull OnLanguagesTranslatedListener listener);
+
+    /**
+     * Returns the maximum number of UTF-8 bytes of the texts that can be translated into the given number
+     * of languages with a single request, which is usually less than the limit of a single language.
+     *
+     * @param languageCount the number of target languages.
+     */
+    int getMaxBatchBytes(int languageCount);
+
+    interface OnLanguagesTranslatedListener {
+        /**
+         * @param index           the index of the source text.
+         * @param translatedTexts the translated text of each target language.
+         */
+        void onTranslated(int index, @NotNull Map<Lang, String> translatedTexts);
+    }
+}
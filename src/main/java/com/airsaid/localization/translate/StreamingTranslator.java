@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate;
+
+import com.airsaid.localization.translate.lang.Lang;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The batch translator that receives the translations of a request as they are generated, so that
+ * each translated text is available before the whole request completes.
+ *
+ * @author airsaid
+ * @see BatchTranslator
+ */
+public interface StreamingTranslator extends BatchTranslator {
+
+    /**
+     * Invoke translation operation of multiple texts without blocking, and report each translated text as soon
+     * as it is received. Cancelling the returned future aborts the requests in progress.
+     *
+     * @param fromLang the language of texts.
+     * @param toLang   the language to be translated into.
+     * @param texts    the texts to be translated.
+     * @param listener the listener of each translated text, called on the thread that receives the response.
+     * @return the future of the translated texts, in the same order as the given texts.
+     */
+    @NotNull
+    CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts,
+                                                     @NotNull OnTranslatedListener listener);
+
+    interface OnTranslatedListener {
+        /**
+         * @param index          the index of the source text.
+         * @param translatedText the translated text.
+         */
+        void onTranslated(int index, @NotNull String translatedText);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate;
+
+import com.airsaid.localization.translate.lang.Lang;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when the translation engine rejects a request because the rate limit is exceeded,
+ * the request can be retried after backing off.
+ *
+ * @author airsaid
+ */
+public class TranslationRateLimitException extends TranslationException {
+
+    private final long retryAfterMillis;
+
+    /**
+     * @param retryAfterMillis the time in milliseconds to wait before retrying, which is
+     *                         suggested by the engine, or -1 if the engine does not suggest it.
+     */
+    public TranslationRateLimitException(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text,
+                                         String message, long retryAfterMillis) {
+        super(fromLang, toLang, text, message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
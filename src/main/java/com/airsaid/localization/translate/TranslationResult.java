@@ -17,14 +17,14 @@
 
 package com.airsaid.localization.translate;
 
-import com.airsaid.localization.translate.impl.google.GoogleTranslationResult;
+import com.airsaid.localization.translate.impl.baidu.BaiduTranslationResult;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Translation results interface to obtain common translation result.
  *
  * @author airsaid
- * @see GoogleTranslationResult
+ * @see BaiduTranslationResult
  */
 public interface TranslationResult {
 
@@ -19,8 +19,11 @@ package com.airsaid.localization.translate;
 
 import com.airsaid.localization.translate.impl.google.GoogleTranslator;
 import com.airsaid.localization.translate.lang.Lang;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The translator interface, the direct implementation class is {@link AbstractTranslator},
  * and all translators should extends {@link AbstractTranslator} to avoid writing duplicate code.
@@ -42,4 +45,21 @@ public interface Translator {
      */
     String doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) throws TranslationException;
 
+    /**
+     * Invoke translation operation without blocking the caller.
+     * <p>
+     * The default implementation runs {@link #doTranslate(Lang, Lang, String)} on the application thread pool,
+     * translators that send HTTP requests should implement it with an asynchronous HTTP client instead.
+     *
+     * @param fromLang the language of text.
+     * @param toLang   the language to be translated into.
+     * @param text     the text to be translated.
+     * @return the future of the translated text, which completes exceptionally with a
+     * {@link TranslationException} if the translation failed.
+     */
+    @NotNull
+    default CompletableFuture<String> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return CompletableFuture.supplyAsync(() -> doTranslate(fromLang, toLang, text), AppExecutorUtil.getAppExecutorService());
+    }
+
 }
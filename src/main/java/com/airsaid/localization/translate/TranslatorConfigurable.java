@@ -57,4 +57,11 @@ public interface TranslatorConfigurable {
 
     @Nullable
     String getApplyAppIdUrl();
+
+    /**
+     * Returns the version of the model that produces the translations, the cached translations
+     * are not reused when it changes. Empty if the translator does not distinguish versions.
+     */
+    @NotNull
+    String getModelVersion();
 }
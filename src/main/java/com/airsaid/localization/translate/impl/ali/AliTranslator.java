@@ -18,10 +18,15 @@
 package com.airsaid.localization.translate.impl.ali;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
+import com.airsaid.localization.translate.util.GsonUtil;
 import com.aliyun.alimt20181012.Client;
+import com.aliyun.alimt20181012.models.GetBatchTranslateRequest;
+import com.aliyun.alimt20181012.models.GetBatchTranslateResponse;
+import com.aliyun.alimt20181012.models.GetBatchTranslateResponseBody;
 import com.aliyun.alimt20181012.models.TranslateGeneralRequest;
 import com.aliyun.alimt20181012.models.TranslateGeneralResponse;
 import com.aliyun.alimt20181012.models.TranslateGeneralResponseBody;
@@ -33,21 +38,29 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author airsaid
  */
 @AutoService(AbstractTranslator.class)
-public class AliTranslator extends AbstractTranslator {
+public class AliTranslator extends AbstractTranslator implements BatchTranslator {
     private static final String KEY = "Ali";
     private static final String ENDPOINT = "mt.aliyuncs.com";
     private static final String APPLY_APP_ID_URL = "https://www.aliyun.com/product/ai/base_alimt";
+    // The limits of the source texts of a batch translation request.
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final int MAX_BATCH_BYTES = 8000;
 
-    private final Config config = new Config();
     private List<Lang> supportedLanguages;
     private Client client;
+    private String clientAccessKeyId;
+    private String clientAccessKeySecret;
 
     @Override
     public @NotNull String getKey() {
@@ -107,19 +120,16 @@ public class AliTranslator extends AbstractTranslator {
         return APPLY_APP_ID_URL;
     }
 
+    @Override
+    public @NotNull CompletableFuture<String> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        // The SDK client only provides blocking requests.
+        return supplyAsync(() -> doTranslate(fromLang, toLang, text));
+    }
+
     @Override
     public String doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) throws TranslationException {
         checkSupportedLanguages(fromLang, toLang, text);
 
-        config.setAccessKeyId(getAppId()).setAccessKeySecret(getAppKey()).setEndpoint(ENDPOINT);
-        if (client == null) {
-            try {
-                client = new Client(config);
-            } catch (Exception e) {
-                throw new TranslationException(fromLang, toLang, text, e);
-            }
-        }
-
         TranslateGeneralRequest request = new TranslateGeneralRequest()
                 .setFormatType("text")
                 .setSourceLanguage(fromLang.getTranslationCode())
@@ -129,15 +139,112 @@ public class AliTranslator extends AbstractTranslator {
         RuntimeOptions runtime = new RuntimeOptions();
         TranslateGeneralResponse response;
         try {
-            response = client.translateGeneralWithOptions(request, runtime);
+            response = getClient().translateGeneralWithOptions(request, runtime);
         } catch (Exception e) {
             throw new TranslationException(fromLang, toLang, text, e);
         }
         final TranslateGeneralResponseBody body = response.body;
-        if (body.getCode() == 200) {
+        if (Integer.valueOf(200).equals(body.getCode())) {
             return body.getData().translated;
         } else {
             throw new TranslationException(fromLang, toLang, text, body.getMessage() + "(" + body.getCode() + ")");
         }
     }
+
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        String text = String.join("\n", texts);
+        checkSupportedLanguages(fromLang, toLang, text);
+
+        // The source texts are sent as a JSON object keyed by the indices of the texts.
+        Map<String, String> sourceTexts = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            sourceTexts.put(String.valueOf(i), texts.get(i));
+        }
+        GetBatchTranslateRequest request = new GetBatchTranslateRequest()
+                .setFormatType("text")
+                .setSourceLanguage(fromLang.getTranslationCode())
+                .setTargetLanguage(toLang.getTranslationCode())
+                .setSourceText(GsonUtil.getInstance().getGson().toJson(sourceTexts))
+                .setScene("general")
+                .setApiType("translate_standard");
+        RuntimeOptions runtime = new RuntimeOptions();
+        GetBatchTranslateResponse response;
+        try {
+            response = getClient().getBatchTranslateWithOptions(request, runtime);
+        } catch (Exception e) {
+            throw new TranslationException(fromLang, toLang, text, e);
+        }
+        final GetBatchTranslateResponseBody body = response.body;
+        // The code is missing if the response is not a result of the API.
+        if (!Integer.valueOf(200).equals(body.getCode())) {
+            throw new TranslationException(fromLang, toLang, text, body.getMessage() + "(" + body.getCode() + ")");
+        }
+
+        String[] results = new String[texts.size()];
+        List<Map<String, ?>> translatedList = body.getTranslatedList();
+        if (translatedList != null) {
+            for (Map<String, ?> translated : translatedList) {
+                int index = parseIndex(translated.get("index"));
+                Object result = translated.get("translated");
+                if (index >= 0 && index < results.length && result != null) {
+                    results[index] = result.toString();
+                }
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                throw new TranslationException(fromLang, toLang, text, "Missing the translation of the text: " + texts.get(i));
+            }
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        // The SDK client only provides blocking requests.
+        return supplyAsync(() -> doTranslate(fromLang, toLang, texts));
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    /**
+     * Returns the client of the SDK, which is shared by the concurrent translations
+     * and only created again when the AccessKey is changed.
+     */
+    @NotNull
+    private synchronized Client getClient() throws Exception {
+        String accessKeyId = getAppId();
+        String accessKeySecret = getAppKey();
+        if (client == null || !Objects.equals(accessKeyId, clientAccessKeyId)
+                || !Objects.equals(accessKeySecret, clientAccessKeySecret)) {
+            Config config = new Config()
+                    .setAccessKeyId(accessKeyId)
+                    .setAccessKeySecret(accessKeySecret)
+                    .setEndpoint(ENDPOINT);
+            client = new Client(config);
+            clientAccessKeyId = accessKeyId;
+            clientAccessKeySecret = accessKeySecret;
+        }
+        return client;
+    }
+
+    private static int parseIndex(@Nullable Object index) {
+        if (index instanceof Number) {
+            return ((Number) index).intValue();
+        }
+        try {
+            return index != null ? Integer.parseInt(index.toString()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
@@ -22,6 +22,8 @@ import com.google.gson.annotations.SerializedName;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -97,14 +99,28 @@ public class BaiduTranslationResult implements TranslationResult {
         return Objects.hash(from, to, contents, errorCode, errorMsg);
     }
 
+    /**
+     * The engine translates every line of the text separately, so the translation is the lines of the results joined.
+     */
     @Override
     public @NotNull String getTranslationResult() {
+        return String.join("\n", getTranslationResults());
+    }
+
+    /**
+     * Returns the translations of every line of the text.
+     */
+    public @NotNull List<String> getTranslationResults() {
         List<Content> contents = getContents();
         if (contents == null || contents.isEmpty()) {
-            return "";
+            return Collections.emptyList();
+        }
+        List<String> results = new ArrayList<>(contents.size());
+        for (Content content : contents) {
+            String dst = content.getDst();
+            results.add(dst != null ? dst : "");
         }
-        String dst = contents.get(0).getDst();
-        return dst != null ? dst : "";
+        return results;
     }
 
     @Override
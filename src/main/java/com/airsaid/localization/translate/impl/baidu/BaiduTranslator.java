@@ -18,31 +18,40 @@
 package com.airsaid.localization.translate.impl.baidu;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.TranslationException;
+import com.airsaid.localization.translate.TranslationRateLimitException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
 import com.airsaid.localization.translate.util.GsonUtil;
 import com.airsaid.localization.translate.util.MD5;
 import com.google.auto.service.AutoService;
 import com.intellij.openapi.util.Pair;
-import com.intellij.util.io.RequestBuilder;
 import icons.PluginIcons;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.net.http.HttpRequest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author airsaid
  */
 @AutoService(AbstractTranslator.class)
-public class BaiduTranslator extends AbstractTranslator {
+public class BaiduTranslator extends AbstractTranslator implements BatchTranslator {
     private static final String KEY = "Baidu";
     private static final String HOST_URL = "http://api.fanyi.baidu.com";
     private static final String TRANSLATE_URL = HOST_URL.concat("/api/trans/vip/translate");
     private static final String APPLY_APP_ID_URL = "http://api.fanyi.baidu.com/api/trans/product/desktop?req=developer";
+    private static final String ERROR_CODE_ACCESS_LIMIT = "54003";
+
+    // The texts of a batch are sent as the lines of a single text, the engine translates every line separately.
+    private static final int MAX_BATCH_SIZE = 100;
+    // The engine recommends to keep the text within 6000 bytes.
+    private static final int MAX_BATCH_BYTES = 6000;
 
     private List<Lang> supportedLanguages;
 
@@ -122,19 +131,63 @@ public class BaiduTranslator extends AbstractTranslator {
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> connection.setRequestProperty("Referer", HOST_URL));
+    public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return getRequestParams(fromLang, toLang, joinLines(texts));
+    }
+
+    @Override
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Referer", HOST_URL);
     }
 
     @Override
     public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
         LOG.info("parsingResult: " + resultText);
+        return parseResult(fromLang, toLang, text, resultText).getTranslationResult();
+    }
+
+    @Override
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull String resultText) {
+        LOG.info("parsingResults: " + resultText);
+        String text = joinLines(texts);
+        List<String> results = parseResult(fromLang, toLang, text, resultText).getTranslationResults();
+        if (results.size() != texts.size()) {
+            throw new BatchMismatchException(fromLang, toLang, text);
+        }
+        return results;
+    }
+
+    @NotNull
+    private BaiduTranslationResult parseResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
         BaiduTranslationResult baiduTranslationResult = GsonUtil.getInstance().getGson().fromJson(resultText, BaiduTranslationResult.class);
         if (baiduTranslationResult.isSuccess()) {
-            return baiduTranslationResult.getTranslationResult();
+            return baiduTranslationResult;
         } else {
             String message = baiduTranslationResult.getErrorMsg().concat("(").concat(baiduTranslationResult.getErrorCode()).concat(")");
+            if (ERROR_CODE_ACCESS_LIMIT.equals(baiduTranslationResult.getErrorCode())) {
+                throw new TranslationRateLimitException(fromLang, toLang, text, message, -1);
+            }
             throw new TranslationException(fromLang, toLang, text, message);
         }
     }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        return doTranslateLines(fromLang, toLang, texts);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return doTranslateLinesAsync(fromLang, toLang, texts);
+    }
 }
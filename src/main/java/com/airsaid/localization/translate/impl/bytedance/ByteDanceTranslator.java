@@ -3,8 +3,10 @@ package com.airsaid.localization.translate.impl.bytedance;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.swing.Icon;
@@ -13,6 +15,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
@@ -29,8 +32,11 @@ import icons.PluginIcons;
 
 
 @AutoService(AbstractTranslator.class)
-public class ByteDanceTranslator extends AbstractTranslator {
+public class ByteDanceTranslator extends AbstractTranslator implements BatchTranslator {
     private static final String KEY = "ByteDance";
+    // The limits of the text list of a request.
+    private static final int MAX_BATCH_SIZE = 16;
+    private static final int MAX_BATCH_BYTES = 5000;
 
     private static final String APPLY_APP_ID_URL = "https://www.volcengine.com/docs/4640/130872";
     private static final String[] SOURCE_SUPPORT_LANG_CODE_ARRAY={
@@ -50,6 +56,8 @@ public class ByteDanceTranslator extends AbstractTranslator {
 
     private List<Lang> supportedLanguages;
     private ITranslateService mService;
+    private String mServiceAccessKey;
+    private String mServiceSecretKey;
 
     @Override
     public @NotNull String getKey() {
@@ -105,29 +113,89 @@ public class ByteDanceTranslator extends AbstractTranslator {
         return APPLY_APP_ID_URL;
     }
 
+    @Override
+    public @NotNull CompletableFuture<String> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang,
+                                                               @NotNull String text) {
+        // The SDK service only provides blocking requests.
+        return supplyAsync(() -> doTranslate(fromLang, toLang, text));
+    }
+
     @Override
     public String doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text)
             throws TranslationException {
-        if (mService == null) {
-            mService = TranslateServiceImpl.getInstance();
-            mService.setAccessKey(getAppId());
-            mService.setSecretKey(getAppKey());
+        return doTranslate(fromLang, toLang, List.of(text)).get(0);
+    }
+
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts)
+            throws TranslationException {
+        TranslateTextRequest request = new TranslateTextRequest();
+        request.setTextList(texts);
+        return doTranslate(request, fromLang, toLang, texts);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang,
+                                                                     @NotNull List<String> texts) {
+        // The SDK service only provides blocking requests.
+        return supplyAsync(() -> doTranslate(fromLang, toLang, texts));
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    /**
+     * Returns the service of the SDK, which is shared by the concurrent translations
+     * and only created again when the AccessKey is changed.
+     */
+    @NotNull
+    private synchronized ITranslateService getService() {
+        String accessKey = getAppId();
+        String secretKey = getAppKey();
+        if (mService == null || !Objects.equals(accessKey, mServiceAccessKey)
+                || !Objects.equals(secretKey, mServiceSecretKey)) {
+            ITranslateService service = TranslateServiceImpl.getInstance();
+            service.setAccessKey(accessKey);
+            service.setSecretKey(secretKey);
+            mService = service;
+            mServiceAccessKey = accessKey;
+            mServiceSecretKey = secretKey;
         }
+        return mService;
+    }
+
+    @NotNull
+    private List<String> doTranslate(@NotNull TranslateTextRequest request, @NotNull Lang fromLang, @NotNull Lang toLang,
+                                     @NotNull List<String> texts) throws TranslationException {
+        String text = String.join("\n", texts);
         try {
-            TranslateTextRequest request = new TranslateTextRequest();
             request.setTargetLanguage(toLang.getCode());
-            request.setTextList(Arrays.asList(text));
-            TranslateTextResponse response = mService.translateText(request);
+            TranslateTextResponse response = getService().translateText(request);
             ResponseMetadata.Error error = response.getResponseMetadata().getError();
             if (error != null) {
                 throw new TranslationException(fromLang, toLang, text,
                         error.getMessage() + "(" + error.getCode() + ")");
             }
             List<Translation> list = response.getTranslationList();
-            if (list == null || list.size() < 1) {
-                throw new TranslationException(fromLang, toLang, text, "Empty translation list!");
+            if (list == null || list.size() != texts.size()) {
+                throw new TranslationException(fromLang, toLang, text, "Expected " + texts.size() +
+                        " translations, but got " + (list == null ? 0 : list.size()));
+            }
+            // The translations are in the same order as the text list.
+            List<String> results = new ArrayList<>(list.size());
+            for (Translation translation : list) {
+                results.add(translation.getTranslation());
             }
-            return list.get(0).getTranslation();
+            return results;
+        } catch (TranslationException e) {
+            throw e;
         } catch (Exception e) {
             throw new TranslationException(fromLang, toLang, text, e);
         }
@@ -18,19 +18,21 @@
 package com.airsaid.localization.translate.impl.deepl;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
-import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
 import com.airsaid.localization.translate.util.UrlBuilder;
 import com.google.auto.service.AutoService;
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Pair;
-import com.intellij.util.io.RequestBuilder;
 import icons.PluginIcons;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.http.HttpRequest;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,14 +40,15 @@ import java.util.List;
  * @author musagil
  */
 @AutoService(AbstractTranslator.class)
-public class DeepLTranslator extends AbstractTranslator {
-
-    private static final Logger LOG = Logger.getInstance(DeepLTranslator.class);
+public class DeepLTranslator extends AbstractTranslator implements BatchTranslator {
 
     private static final String KEY = "DeepL";
     private static final String HOST_URL = "https://api-free.deepl.com/v2";
     private static final String TRANSLATE_URL = HOST_URL.concat("/translate");
     private static final String APPLY_APP_ID_URL = "https://www.deepl.com/pro-api?cta=header-pro-api/";
+    private static final int MAX_BATCH_SIZE = 50;
+    // The request body is limited to 128 KiB, and the form encoding takes up to 3 bytes for each byte of the texts.
+    private static final int MAX_BATCH_BYTES = 40000;
 
     private List<Lang> supportedLanguages;
 
@@ -125,24 +128,45 @@ public class DeepLTranslator extends AbstractTranslator {
 
     @Override
     public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return getRequestParams(fromLang, toLang, List.of(text));
+    }
+
+    @Override
+    public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
         List<Pair<String, String>> params = new ArrayList<>();
-        params.add(Pair.create("text", text));
+        // The texts are translated in the order of the text parameters.
+        for (String text : texts) {
+            params.add(Pair.create("text", text));
+        }
         params.add(Pair.create("target_lang", toLang.getCode()));
         return params;
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> {
-            connection.setRequestProperty("Authorization", "DeepL-Auth-Key " + getAppKey());
-            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-        });
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Authorization", "DeepL-Auth-Key " + getAppKey())
+                .setHeader("Content-Type", "application/x-www-form-urlencoded");
+    }
+
+    @Override
+    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        List<String> results = JsonStreamUtil.readStrings(resultReader, "translations[].text");
+        return results.isEmpty() ? "" : results.get(0);
+    }
+
+    @Override
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        return JsonStreamUtil.readStrings(resultReader, "translations[].text");
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
     }
 
     @Override
-    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
-        LOG.info("parsingResult: " + resultText);
-        return GsonUtil.getInstance().getGson().fromJson(resultText, DeepLTranslationResult.class).getTranslationResult();
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
     }
 
 }
@@ -18,28 +18,40 @@
 package com.airsaid.localization.translate.impl.google;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
+import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.util.AgentUtil;
-import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
 import com.airsaid.localization.translate.util.UrlBuilder;
 import com.google.auto.service.AutoService;
 import com.intellij.openapi.util.Pair;
-import com.intellij.util.io.RequestBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.net.http.HttpRequest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author airsaid
  */
 @AutoService(AbstractTranslator.class)
-public class GoogleTranslator extends AbsGoogleTranslator {
+public class GoogleTranslator extends AbsGoogleTranslator implements BatchTranslator {
     public static final String KEY = "Google";
 
     public static final String HOST_URL = "https://translate.googleapis.com";
     private static final String BASE_URL = HOST_URL.concat("/translate_a/single");
 
+    // The texts of a batch are sent as the lines of a single text, the engine translates every line as a sentence.
+    private static final int MAX_BATCH_SIZE = 100;
+    // The engine rejects the texts longer than about 5000 characters.
+    private static final int MAX_BATCH_BYTES = 5000;
+
     @Override
     public @NotNull String getKey() {
         return KEY;
@@ -74,6 +86,12 @@ public class GoogleTranslator extends AbsGoogleTranslator {
                 .build();
     }
 
+    @Override
+    public @NotNull String getRequestUrl(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        // The token is computed from the whole text of the request.
+        return getRequestUrl(fromLang, toLang, joinLines(texts));
+    }
+
     @Override
     public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         List<Pair<String, String>> params = new ArrayList<>();
@@ -82,15 +100,97 @@ public class GoogleTranslator extends AbsGoogleTranslator {
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.userAgent(AgentUtil.getUserAgent())
-                .tuner(connection -> connection.setRequestProperty("Referer", GoogleTranslator.HOST_URL));
+    public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return getRequestParams(fromLang, toLang, joinLines(texts));
+    }
+
+    @Override
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("User-Agent", AgentUtil.getUserAgent())
+                .setHeader("Referer", GoogleTranslator.HOST_URL);
+    }
+
+    @Override
+    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        // The text is translated sentence by sentence.
+        return String.join("", JsonStreamUtil.readStrings(resultReader, "sentences[].trans"));
+    }
+
+    @Override
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        List<String> translations = new ArrayList<>();
+        List<String> originals = new ArrayList<>();
+        JsonStreamUtil.read(resultReader, Map.of(
+                "sentences[].trans", translations::add,
+                "sentences[].orig", originals::add));
+        List<String> results = splitSentences(translations, originals, texts.size());
+        if (results == null) {
+            throw new BatchMismatchException(fromLang, toLang, joinLines(texts));
+        }
+        return results;
     }
 
     @Override
-    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
-        LOG.info("parsingResult: " + resultText);
-        GoogleTranslationResult googleTranslationResult = GsonUtil.getInstance().getGson().fromJson(resultText, GoogleTranslationResult.class);
-        return googleTranslationResult.getTranslationResult();
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    /**
+     * Translate the texts as the lines of a single request, the texts are translated one by one
+     * if the translated sentences can not be split into the texts.
+     */
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        return doTranslateLines(fromLang, toLang, texts);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return doTranslateLinesAsync(fromLang, toLang, texts);
+    }
+
+    /**
+     * Split the translated sentences of a batch into the translations of its texts: the original of the last
+     * sentence of each text ends with the line break that separates the texts.
+     *
+     * @param translations the translations of the sentences.
+     * @param originals    the originals of the sentences.
+     * @param size         the number of texts of the batch.
+     * @return the translations of the texts, or null if the sentences can not be split into the texts.
+     */
+    @Nullable
+    static List<String> splitSentences(@NotNull List<String> translations, @NotNull List<String> originals, int size) {
+        if (translations.size() != originals.size()) return null;
+        List<String> results = new ArrayList<>(size);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < translations.size(); i++) {
+            String original = originals.get(i);
+            int lineBreak = original.indexOf('\n');
+            // A sentence that spans multiple texts.
+            if (lineBreak >= 0 && lineBreak != original.length() - 1) return null;
+            result.append(translations.get(i));
+            if (lineBreak >= 0) {
+                results.add(stripLineBreak(result));
+                result.setLength(0);
+            }
+        }
+        if (result.length() > 0) {
+            results.add(stripLineBreak(result));
+        }
+        return results.size() == size ? results : null;
+    }
+
+    @NotNull
+    private static String stripLineBreak(@NotNull StringBuilder text) {
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return text.substring(0, end);
     }
 }
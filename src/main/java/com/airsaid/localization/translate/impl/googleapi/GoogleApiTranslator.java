@@ -1,28 +1,35 @@
 package com.airsaid.localization.translate.impl.googleapi;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.impl.google.AbsGoogleTranslator;
 import com.airsaid.localization.translate.lang.Lang;
-import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
 import com.google.auto.service.AutoService;
 import com.intellij.openapi.util.Pair;
-import com.intellij.util.io.RequestBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.net.http.HttpRequest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author airsaid
  */
 @AutoService(AbstractTranslator.class)
-public class GoogleApiTranslator extends AbsGoogleTranslator {
+public class GoogleApiTranslator extends AbsGoogleTranslator implements BatchTranslator {
     private static final String KEY = "GoogleApi";
     private static final String HOST_URL = "https://translation.googleapis.com";
     private static final String TRANSLATE_URL = HOST_URL.concat("/language/translate/v2");
     private static final String APPLY_APP_ID_URL = "https://cloud.google.com/translate";
+    // The limits of the q parameters of a request.
+    private static final int MAX_BATCH_SIZE = 128;
+    private static final int MAX_BATCH_BYTES = 5000;
 
     @Override
     public @NotNull String getKey() {
@@ -57,8 +64,16 @@ public class GoogleApiTranslator extends AbsGoogleTranslator {
 
     @Override
     public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return getRequestParams(fromLang, toLang, List.of(text));
+    }
+
+    @Override
+    public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
         List<Pair<String, String>> params = new ArrayList<>();
-        params.add(Pair.create("q", text));
+        // The texts are translated in the order of the q parameters.
+        for (String text : texts) {
+            params.add(Pair.create("q", text));
+        }
         params.add(Pair.create("target", toLang.getTranslationCode()));
         params.add(Pair.create("key", getAppKey()));
         params.add(Pair.create("format", "text"));
@@ -66,20 +81,46 @@ public class GoogleApiTranslator extends AbsGoogleTranslator {
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> connection.setRequestProperty("Referer", HOST_URL));
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Referer", HOST_URL);
     }
 
     @Override
-    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
-        LOG.info("parsingResult: " + resultText);
-        GoogleApiTranslationResult result = GsonUtil.getInstance().getGson().fromJson(resultText, GoogleApiTranslationResult.class);
-        if (result.isSuccess()) {
-            return result.getTranslationResult();
+    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        return readTranslations(fromLang, toLang, text, resultReader).get(0);
+    }
+
+    @Override
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        return readTranslations(fromLang, toLang, String.join("\n", texts), resultReader);
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    @NotNull
+    private List<String> readTranslations(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        List<String> translations = new ArrayList<>();
+        StringBuilder errorMessage = new StringBuilder();
+        StringBuilder errorCode = new StringBuilder();
+        JsonStreamUtil.read(resultReader, Map.of(
+                "data.translations[].translatedText", translations::add,
+                "error.message", errorMessage::append,
+                "error.code", errorCode::append
+        ));
+        if (!translations.isEmpty() && errorCode.length() == 0) {
+            return translations;
         } else {
             String message;
-            if (result.error != null) {
-                message = result.error.message.concat("(").concat(String.valueOf(result.error.code)).concat(")");
+            if (errorCode.length() > 0) {
+                message = errorMessage.toString().concat("(").concat(errorCode.toString()).concat(")");
             } else {
                 message = "Unknown error";
             }
@@ -18,33 +18,42 @@
 package com.airsaid.localization.translate.impl.microsoft;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
+import com.airsaid.localization.translate.MultiTargetTranslator;
+import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
 import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
 import com.airsaid.localization.translate.util.UrlBuilder;
 import com.google.auto.service.AutoService;
-import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.util.io.RequestBuilder;
 import icons.PluginIcons;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.http.HttpRequest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * @author airsaid
  */
 @AutoService(AbstractTranslator.class)
-public class MicrosoftTranslator extends AbstractTranslator {
-
-    private static final Logger LOG = Logger.getInstance(MicrosoftTranslator.class);
+public class MicrosoftTranslator extends AbstractTranslator implements BatchTranslator, MultiTargetTranslator {
 
     private static final String KEY = "Microsoft";
     private static final String HOST_URL = "https://api.cognitive.microsofttranslator.com";
     private static final String TRANSLATE_URL = HOST_URL.concat("/translate");
     private static final String APPLY_APP_ID_URL = "https://docs.microsoft.com/azure/cognitive-services/translator/translator-how-to-signup";
+    // The request can have at most 1000 texts, and the entire texts cannot exceed 50000 characters.
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_BATCH_BYTES = 50000;
+    // The translated texts in the response, one element per text and one translation per target language.
+    private static final String TRANSLATION_TEXT_PATH = "[].translations[].text";
 
     private List<Lang> supportedLanguages;
 
@@ -170,32 +179,159 @@ public class MicrosoftTranslator extends AbstractTranslator {
         return APPLY_APP_ID_URL;
     }
 
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    /**
+     * The characters of the texts are counted once for each target language,
+     * so the limit of a single language is shared by the target languages.
+     */
+    @Override
+    public int getMaxBatchBytes(int languageCount) {
+        return Math.max(1, MAX_BATCH_BYTES / languageCount);
+    }
+
+    /**
+     * Translate the texts into multiple languages with a single request.
+     *
+     * @param fromLang    the language of texts.
+     * @param toLanguages the languages to be translated into.
+     * @param texts       the texts to be translated.
+     * @return the translated texts of each target language, in the same order as the given texts.
+     */
+    @Override
+    @NotNull
+    public Map<Lang, List<String>> doTranslate(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts) {
+        String text = String.join("\n", texts);
+        for (Lang toLang : toLanguages) {
+            checkSupportedLanguages(fromLang, toLang, text);
+        }
+
+        return doRequest(fromLang, toLanguages.get(0), text,
+                getRequestUrl(toLanguages),
+                List::of,
+                () -> getRequestBody(fromLang, toLanguages.get(0), texts),
+                resultReader -> parsingResults(fromLang, toLanguages, texts, resultReader, null));
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                       @NotNull List<String> texts) {
+        return translateAsync(fromLang, toLanguages, texts, null);
+    }
+
+    /**
+     * The response is not streamed, so the translations of every text are reported together
+     * as soon as the response is parsed.
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                       @NotNull List<String> texts,
+                                                                       @NotNull OnLanguagesTranslatedListener listener) {
+        return translateAsync(fromLang, toLanguages, texts, listener);
+    }
+
+    @NotNull
+    private CompletableFuture<Map<Lang, List<String>>> translateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                      @NotNull List<String> texts,
+                                                                      @Nullable OnLanguagesTranslatedListener listener) {
+        String text = String.join("\n", texts);
+        try {
+            for (Lang toLang : toLanguages) {
+                checkSupportedLanguages(fromLang, toLang, text);
+            }
+
+            return doRequestAsync(fromLang, toLanguages.get(0), text,
+                    getRequestUrl(toLanguages),
+                    List::of,
+                    () -> getRequestBody(fromLang, toLanguages.get(0), texts),
+                    resultReader -> parsingResults(fromLang, toLanguages, texts, resultReader, listener));
+        } catch (TranslationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * The translations of each text are in the same order as the target languages of the request,
+     * so they are written straight into the results of their languages.
+     */
+    @NotNull
+    private Map<Lang, List<String>> parsingResults(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                   @NotNull List<String> texts, @NotNull Reader resultReader,
+                                                   @Nullable OnLanguagesTranslatedListener listener) throws IOException {
+        Map<Lang, List<String>> translations = new LinkedHashMap<>();
+        for (Lang toLang : toLanguages) {
+            translations.put(toLang, new ArrayList<>(texts.size()));
+        }
+        int[] count = new int[1];
+        JsonStreamUtil.read(resultReader, Map.of(TRANSLATION_TEXT_PATH, translation ->
+                translations.get(toLanguages.get(count[0]++ % toLanguages.size())).add(translation)));
+        if (count[0] != texts.size() * toLanguages.size()) {
+            throw new TranslationException(fromLang, toLanguages.get(0), String.join("\n", texts),
+                    "Expected " + texts.size() * toLanguages.size() + " results, but got " + count[0]);
+        }
+        if (listener != null) {
+            for (int i = 0; i < texts.size(); i++) {
+                Map<Lang, String> translatedTexts = new LinkedHashMap<>();
+                for (Lang toLang : toLanguages) {
+                    translatedTexts.put(toLang, translations.get(toLang).get(i));
+                }
+                listener.onTranslated(i, translatedTexts);
+            }
+        }
+        return translations;
+    }
+
     @Override
     public @NotNull String getRequestUrl(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return getRequestUrl(List.of(toLang));
+    }
+
+    private String getRequestUrl(@NotNull List<Lang> toLanguages) {
         return new UrlBuilder(TRANSLATE_URL)
                 .addQueryParameter("api-version", "3.0")
-                .addQueryParameter("to", toLang.getTranslationCode())
+                .addQueryParameters("to", toLanguages.stream().map(Lang::getTranslationCode).toArray(String[]::new))
                 .build();
     }
 
     @Override
     @NotNull
     public String getRequestBody(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
-        return "[{\"Text\": \"" + text + "\"}]";
+        return getRequestBody(fromLang, toLang, List.of(text));
+    }
+
+    @Override
+    public @NotNull String getRequestBody(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        List<Map<String, String>> body = texts.stream()
+                .map(text -> Collections.singletonMap("Text", text))
+                .collect(Collectors.toList());
+        return GsonUtil.getInstance().getGson().toJson(body);
+    }
+
+    @Override
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Ocp-Apim-Subscription-Key", getAppKey())
+                .setHeader("Content-Type", "application/json");
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> {
-            connection.setRequestProperty("Ocp-Apim-Subscription-Key", getAppKey());
-            connection.setRequestProperty("Content-type", "application/json");
-        });
+    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        List<String> results = JsonStreamUtil.readStrings(resultReader, TRANSLATION_TEXT_PATH);
+        return results.isEmpty() ? "" : results.get(0);
     }
 
     @Override
-    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
-        LOG.info("parsingResult: " + resultText);
-        return GsonUtil.getInstance().getGson().fromJson(resultText, MicrosoftTranslationResult[].class)[0].getTranslationResult();
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        return JsonStreamUtil.readStrings(resultReader, TRANSLATION_TEXT_PATH);
     }
 
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.impl.openai;
+
+import com.airsaid.localization.translate.util.GsonUtil;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs multiple texts into a single chat completion: the texts are sent as a numbered JSON array,
+ * and the model replies with a JSON object that contains the translations of every item.
+ *
+ * @author airsaid
+ */
+final class ChatGPTBatch {
+
+    // The approximate number of tokens of the instructions and the message structure of a request.
+    static final int PROMPT_TOKENS = 250;
+    // The approximate number of tokens of the JSON syntax around each item.
+    static final int ITEM_TOKENS = 8;
+
+    private ChatGPTBatch() {
+        throw new AssertionError("No com.airsaid.localization.translate.impl.openai.ChatGPTBatch instances for you!");
+    }
+
+    /**
+     * Estimate the number of tokens of the text: about four characters per token for alphabetic
+     * scripts, and one token per character for the scripts without spaces between words.
+     */
+    static int estimateTokens(@NotNull String text) {
+        int wideCount = 0;
+        int otherCount = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isWideScript(codePoint)) {
+                wideCount++;
+            } else {
+                otherCount++;
+            }
+        }
+        return wideCount + (otherCount + 3) / 4;
+    }
+
+    private static boolean isWideScript(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA ||
+                script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL ||
+                script == Character.UnicodeScript.THAI;
+    }
+
+    /**
+     * Split the texts into batches whose estimated tokens do not exceed the budget,
+     * a text that exceeds the budget by itself is sent alone.
+     */
+    @NotNull
+    static List<List<String>> split(@NotNull List<String> texts, int tokenBudget) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int batchTokens = 0;
+        for (String text : texts) {
+            int tokens = estimateTokens(text) + ITEM_TOKENS;
+            if (!batch.isEmpty() && batchTokens + tokens > tokenBudget) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchTokens = 0;
+            }
+            batch.add(text);
+            batchTokens += tokens;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Returns the texts as a JSON array of numbered items, e.g. {@code [{"id":1,"text":"Hello"}]}.
+     */
+    @NotNull
+    static String toItems(@NotNull List<String> texts) {
+        JsonArray items = new JsonArray();
+        for (int i = 0; i < texts.size(); i++) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", i + 1);
+            item.addProperty("text", texts.get(i));
+            items.add(item);
+        }
+        return GsonUtil.getInstance().getGson().toJson(items);
+    }
+
+    /**
+     * Returns the description of the reply, which is a JSON object like
+     * {@code {"translations":[{"id":1,"fr":"Bonjour","de":"Hallo"}]}}.
+     */
+    @NotNull
+    static String getResponseSchema(@NotNull List<String> languageCodes) {
+        StringBuilder item = new StringBuilder("{\"id\":<id of the item>");
+        for (String languageCode : languageCodes) {
+            item.append(",\"").append(languageCode).append("\":\"<translation>\"");
+        }
+        item.append('}');
+        return "{\"translations\":[" + item + "]}";
+    }
+
+    /**
+     * Parse the reply of the model.
+     *
+     * @param content       the message content of the reply.
+     * @param languageCodes the codes of the target languages.
+     * @param size          the number of items of the request.
+     * @return the translations of each item keyed by the language codes, in the same order as the items,
+     * or null if the reply does not contain exactly the translations of every item.
+     */
+    @Nullable
+    static List<Map<String, String>> parseTranslations(@NotNull String content, @NotNull List<String> languageCodes, int size) {
+        // The model sometimes wraps the JSON object in a markdown code block.
+        if (content.startsWith("```")) {
+            content = content.substring(content.indexOf('\n') + 1, Math.max(content.indexOf('\n') + 1, content.lastIndexOf("```"))).trim();
+        }
+        JsonArray items;
+        try {
+            JsonObject reply = GsonUtil.getInstance().getGson().fromJson(content, JsonObject.class);
+            JsonElement translations = reply != null ? reply.get("translations") : null;
+            if (translations == null || !translations.isJsonArray()) return null;
+            items = translations.getAsJsonArray();
+        } catch (JsonParseException e) {
+            return null;
+        }
+        if (items.size() != size) return null;
+
+        List<Map<String, String>> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!items.get(i).isJsonObject()) return null;
+            Map<String, String> translations = parseItem(items.get(i).getAsJsonObject(), languageCodes, i + 1);
+            if (translations == null) return null;
+            results.add(translations);
+        }
+        return results;
+    }
+
+    /**
+     * Parse an item of the reply.
+     *
+     * @param item          the item of the {@code translations} array.
+     * @param languageCodes the codes of the target languages.
+     * @param id            the expected id of the item.
+     * @return the translations of the item keyed by the language codes,
+     * or null if the item has another id or misses a translation.
+     */
+    @Nullable
+    static Map<String, String> parseItem(@NotNull JsonObject item, @NotNull List<String> languageCodes, int id) {
+        JsonElement itemId = item.get("id");
+        if (itemId == null || !itemId.isJsonPrimitive() || !String.valueOf(id).equals(itemId.getAsString())) return null;
+        Map<String, String> translations = new LinkedHashMap<>();
+        for (String languageCode : languageCodes) {
+            JsonElement translation = item.get(languageCode);
+            if (translation == null || !translation.isJsonPrimitive()) return null;
+            translations.put(languageCode, translation.getAsString());
+        }
+        return translations;
+    }
+}
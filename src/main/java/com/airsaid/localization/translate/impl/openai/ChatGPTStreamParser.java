@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.impl.openai;
+
+import com.airsaid.localization.translate.util.GsonUtil;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Parses the message content of a streamed batch reply while it is being generated: the items of the
+ * {@code translations} array of the reply, e.g. {@code {"translations":[{"id":1,"fr":"Bonjour"}]}},
+ * are reported as soon as their JSON objects are complete.
+ *
+ * @author airsaid
+ * @see ChatGPTBatch#getResponseSchema(java.util.List)
+ */
+final class ChatGPTStreamParser {
+
+    // The depth of the items, which are the objects in the array of the root object.
+    private static final int ITEM_DEPTH = 2;
+
+    private final StringBuilder content = new StringBuilder();
+    private final Consumer<JsonObject> itemConsumer;
+    private int position;
+    private int depth;
+    private boolean isInString;
+    private boolean isEscaped;
+    private int itemStart = -1;
+
+    ChatGPTStreamParser(@NotNull Consumer<JsonObject> itemConsumer) {
+        this.itemConsumer = itemConsumer;
+    }
+
+    /**
+     * Append the next part of the content, and report the items that are completed by it.
+     */
+    void append(@NotNull String delta) {
+        content.append(delta);
+        for (; position < content.length(); position++) {
+            char c = content.charAt(position);
+            if (isInString) {
+                if (isEscaped) {
+                    isEscaped = false;
+                } else if (c == '\\') {
+                    isEscaped = true;
+                } else if (c == '"') {
+                    isInString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    isInString = true;
+                    break;
+                case '{':
+                    if (depth == ITEM_DEPTH) {
+                        itemStart = position;
+                    }
+                    depth++;
+                    break;
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                    depth--;
+                    if (depth == ITEM_DEPTH && itemStart >= 0) {
+                        parseItem(content.substring(itemStart, position + 1));
+                        itemStart = -1;
+                    }
+                    break;
+                case ']':
+                    depth--;
+                    break;
+            }
+        }
+    }
+
+    private void parseItem(@NotNull String json) {
+        JsonObject item;
+        try {
+            item = GsonUtil.getInstance().getGson().fromJson(json, JsonObject.class);
+        } catch (JsonParseException e) {
+            // The whole reply is validated when it is complete.
+            return;
+        }
+        itemConsumer.accept(item);
+    }
+
+    /**
+     * Returns the content received so far.
+     */
+    @NotNull
+    String getContent() {
+        return content.toString().trim();
+    }
+}
@@ -17,26 +17,50 @@
 
 package com.airsaid.localization.translate.impl.openai;
 
+import com.airsaid.localization.config.SettingsState;
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.MultiTargetTranslator;
+import com.airsaid.localization.translate.StreamingTranslator;
+import com.airsaid.localization.translate.TranslationException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
 import com.airsaid.localization.translate.util.GsonUtil;
+import com.airsaid.localization.translate.util.JsonStreamUtil;
+import com.airsaid.localization.translate.util.ServerSentEvents;
 import com.google.auto.service.AutoService;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.util.io.RequestBuilder;
 import icons.PluginIcons;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @AutoService(AbstractTranslator.class)
-public class ChatGPTTranslator extends AbstractTranslator {
+public class ChatGPTTranslator extends AbstractTranslator implements StreamingTranslator, MultiTargetTranslator {
 
     private static final Logger LOG = Logger.getInstance(ChatGPTTranslator.class);
     private static final String KEY = "ChatGPT";
+    // The translation of a text takes about as many tokens as the text, with some room for longer languages.
+    private static final double OUTPUT_TOKENS_RATIO = 1.5;
+    private static final int MAX_BATCH_SIZE = 100;
+    // The approximate number of UTF-8 bytes of a token, a chunk larger than the token budget is split into multiple requests.
+    private static final int BYTES_PER_TOKEN = 4;
+    // The data of the last event of a streamed reply.
+    private static final String STREAM_DONE = "[DONE]";
 
     @Override
     public @NotNull String getKey() {
@@ -73,10 +97,19 @@ public class ChatGPTTranslator extends AbstractTranslator {
         return "KEY";
     }
 
+    @Override
+    public @NotNull String getModelVersion() {
+        return SettingsState.getInstance().getOpenAIModel();
+    }
+
 
     @Override
     public @NotNull String getRequestUrl(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
-        return "https://api.openai.com/v1/chat/completions";
+        String baseUrl = SettingsState.getInstance().getOpenAIBaseUrl();
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        return baseUrl + "/chat/completions";
     }
 
     @Override
@@ -88,23 +121,352 @@ public class ChatGPTTranslator extends AbstractTranslator {
         ChatGPTMessage role = new ChatGPTMessage("system", roleSystem);
         ChatGPTMessage msg = new ChatGPTMessage("user", String.format("Text to translate: %s", text));
 
-        OpenAIRequest body = new OpenAIRequest("gpt-3.5-turbo", List.of(role, msg));
+        OpenAIRequest body = new OpenAIRequest(getModelVersion(), List.of(role, msg));
 
         return GsonUtil.getInstance().getGson().toJson(body);
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> {
-            connection.setRequestProperty("Authorization", "Bearer " + getAppKey());
-            connection.setRequestProperty("Content-Type", "application/json");
-        });
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Authorization", "Bearer " + getAppKey())
+                .setHeader("Content-Type", "application/json");
+    }
+
+    @Override
+    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull Reader resultReader) throws IOException {
+        return readContent(resultReader);
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return getMaxBatchBytes(1);
+    }
+
+    @Override
+    public int getMaxBatchBytes(int languageCount) {
+        return getTokenBudget(languageCount) * BYTES_PER_TOKEN;
+    }
+
+    /**
+     * Translate the texts with as few requests as the token budget of a request allows, each request
+     * sends the texts as a numbered JSON array and the model replies with the translation of every item.
+     */
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        checkSupportedLanguages(fromLang, toLang, String.join("\n", texts));
+
+        List<String> results = new ArrayList<>(texts.size());
+        for (List<String> batch : ChatGPTBatch.split(texts, getTokenBudget(1))) {
+            for (Map<Lang, String> translations : translateBatch(fromLang, List.of(toLang), batch)) {
+                results.add(translations.get(toLang));
+            }
+        }
+        return results;
     }
 
     @Override
-    public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
-        LOG.info("parsingResult ChatGPT: " + resultText);
-        return GsonUtil.getInstance().getGson().fromJson(resultText, OpenAIResponse.class).getTranslation();
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return translateAsync(fromLang, toLang, texts, null);
+    }
+
+    /**
+     * Translate the texts with streaming requests, the translation of each item is reported as soon as
+     * the model has generated it, and cancelling the translation stops the generation of the rest.
+     */
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts,
+                                                                     @NotNull OnTranslatedListener listener) {
+        return translateAsync(fromLang, toLang, texts, listener);
+    }
+
+    @Override
+    public @NotNull Map<Lang, List<String>> doTranslate(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                        @NotNull List<String> texts) throws TranslationException {
+        for (Lang toLang : toLanguages) {
+            checkSupportedLanguages(fromLang, toLang, String.join("\n", texts));
+        }
+        List<Map<Lang, String>> results = new ArrayList<>(texts.size());
+        for (List<String> batch : ChatGPTBatch.split(texts, getTokenBudget(toLanguages.size()))) {
+            results.addAll(translateBatch(fromLang, toLanguages, batch));
+        }
+        return toLanguageResults(toLanguages, results);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                               @NotNull List<String> texts) {
+        return map(translateAsync(fromLang, toLanguages, texts, null), results -> toLanguageResults(toLanguages, results));
+    }
+
+    /**
+     * Translate the texts into multiple languages with streaming requests, the translations of each item
+     * are reported as soon as the model has generated them.
+     */
+    @Override
+    public @NotNull CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                               @NotNull List<String> texts,
+                                                                               @NotNull OnLanguagesTranslatedListener listener) {
+        return map(translateAsync(fromLang, toLanguages, texts, listener), results -> toLanguageResults(toLanguages, results));
+    }
+
+    /**
+     * Returns the budget of the estimated tokens of the texts of a request. The reply contains a translation
+     * of every text for each language, so the budget shrinks with the number of target languages.
+     */
+    private int getTokenBudget(int languageCount) {
+        int maxTokens = SettingsState.getInstance().getOpenAIMaxTokens();
+        return Math.max(1, (int) ((maxTokens - ChatGPTBatch.PROMPT_TOKENS) / (1 + OUTPUT_TOKENS_RATIO * languageCount)));
+    }
+
+    /**
+     * Translate a batch with a single request, the batch is split in half and translated again
+     * if the reply does not contain exactly the translations of every item.
+     */
+    @NotNull
+    private List<Map<Lang, String>> translateBatch(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                   @NotNull List<String> batch) {
+        try {
+            return doRequest(fromLang, toLanguages.get(0), String.join("\n", batch),
+                    getRequestUrl(fromLang, toLanguages.get(0), batch.get(0)),
+                    List::of,
+                    () -> getRequestBody(toLanguages, batch, false),
+                    resultReader -> parsingResults(fromLang, toLanguages, batch, resultReader));
+        } catch (BatchMismatchException e) {
+            if (batch.size() == 1) throw e;
+            LOG.info("translateBatch mismatched results, split the batch of size: " + batch.size());
+            int half = batch.size() / 2;
+            List<Map<Lang, String>> results = new ArrayList<>(translateBatch(fromLang, toLanguages, batch.subList(0, half)));
+            results.addAll(translateBatch(fromLang, toLanguages, batch.subList(half, batch.size())));
+            return results;
+        }
+    }
+
+    @NotNull
+    private CompletableFuture<List<String>> translateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts,
+                                                           @Nullable OnTranslatedListener listener) {
+        return map(translateAsync(fromLang, List.of(toLang), texts, listener == null ? null :
+                        (index, translations) -> listener.onTranslated(index, translations.get(toLang))),
+                results -> results.stream()
+                        .map(translations -> translations.get(toLang))
+                        .collect(Collectors.toList()));
     }
 
+    /**
+     * The asynchronous version of {@link #doTranslate(Lang, List, List)}, the translations of each item
+     * of all target languages are returned together.
+     */
+    @NotNull
+    private CompletableFuture<List<Map<Lang, String>>> translateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                      @NotNull List<String> texts,
+                                                                      @Nullable OnLanguagesTranslatedListener listener) {
+        try {
+            for (Lang toLang : toLanguages) {
+                checkSupportedLanguages(fromLang, toLang, String.join("\n", texts));
+            }
+        } catch (TranslationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<List<Map<Lang, String>>> translation = new CompletableFuture<>();
+        List<CompletableFuture<List<Map<Lang, String>>>> futures = new ArrayList<>();
+        int offset = 0;
+        for (List<String> batch : ChatGPTBatch.split(texts, getTokenBudget(toLanguages.size()))) {
+            futures.add(translateBatchAsync(fromLang, toLanguages, batch, offset, listener, translation));
+            offset += batch.size();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        translation.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        return;
+                    }
+                    translation.complete(futures.stream()
+                            .flatMap(future -> future.join().stream())
+                            .collect(Collectors.toList()));
+                });
+        return translation;
+    }
+
+    /**
+     * The asynchronous version of {@link #translateBatch(Lang, List, List)}, the requests in progress are aborted
+     * when the translation is cancelled. With a listener, the reply is streamed.
+     *
+     * @param offset      the index of the first text of the batch in the texts of the translation.
+     * @param translation the future of the whole translation.
+     */
+    @NotNull
+    private CompletableFuture<List<Map<Lang, String>>> translateBatchAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                           @NotNull List<String> batch, int offset,
+                                                                           @Nullable OnLanguagesTranslatedListener listener,
+                                                                           @NotNull CompletableFuture<?> translation) {
+        Lang toLang = toLanguages.get(0);
+        CompletableFuture<List<Map<Lang, String>>> request;
+        if (listener == null) {
+            request = doRequestAsync(fromLang, toLang, String.join("\n", batch),
+                    getRequestUrl(fromLang, toLang, batch.get(0)),
+                    List::of,
+                    () -> getRequestBody(toLanguages, batch, false),
+                    resultReader -> parsingResults(fromLang, toLanguages, batch, resultReader));
+        } else {
+            request = doStreamingRequestAsync(fromLang, toLang, String.join("\n", batch),
+                    getRequestUrl(fromLang, toLang, batch.get(0)),
+                    List::of,
+                    () -> getRequestBody(toLanguages, batch, true),
+                    resultReader -> parsingStream(fromLang, toLanguages, batch, resultReader,
+                            (index, translations) -> listener.onTranslated(offset + index, translations)));
+        }
+        translation.whenComplete((ignored, error) -> {
+            if (translation.isCancelled()) {
+                request.cancel(false);
+            }
+        });
+        return request
+                .handle((results, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(results);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof BatchMismatchException) || batch.size() == 1 || translation.isDone()) {
+                        return CompletableFuture.<List<Map<Lang, String>>>failedFuture(cause);
+                    }
+                    LOG.info("translateBatch mismatched results, split the batch of size: " + batch.size());
+                    int half = batch.size() / 2;
+                    return translateBatchAsync(fromLang, toLanguages, batch.subList(0, half), offset, listener, translation)
+                            .thenCombine(translateBatchAsync(fromLang, toLanguages, batch.subList(half, batch.size()), offset + half, listener, translation),
+                                    (first, second) -> {
+                                        List<Map<Lang, String>> combined = new ArrayList<>(first);
+                                        combined.addAll(second);
+                                        return combined;
+                                    });
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Returns the future of the mapped result of the translation, cancelling it cancels the translation.
+     */
+    @NotNull
+    private static <T, R> CompletableFuture<R> map(@NotNull CompletableFuture<T> translation, @NotNull Function<T, R> mapper) {
+        CompletableFuture<R> result = translation.thenApply(mapper);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                translation.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    @NotNull
+    private static Map<Lang, List<String>> toLanguageResults(@NotNull List<Lang> toLanguages, @NotNull List<Map<Lang, String>> results) {
+        Map<Lang, List<String>> languageResults = new LinkedHashMap<>();
+        for (Lang toLang : toLanguages) {
+            languageResults.put(toLang, new ArrayList<>(results.size()));
+        }
+        for (Map<Lang, String> translations : results) {
+            translations.forEach((toLang, translation) -> languageResults.get(toLang).add(translation));
+        }
+        return languageResults;
+    }
+
+    @NotNull
+    private String getRequestBody(@NotNull List<Lang> toLanguages, @NotNull List<String> texts, boolean isStream) {
+        String languages = toLanguages.stream()
+                .map(lang -> String.format("%s (%s)", lang.getCode(), lang.getEnglishName()))
+                .collect(Collectors.joining(", "));
+        List<String> languageCodes = toLanguages.stream().map(Lang::getCode).collect(Collectors.toList());
+        String roleSystem = String.format("Translate the text of each item of the user provided JSON array into high quality, well written %s. Apply these 4 translation rules; 1.Keep the exact original formatting and style, 2.Keep translations concise and just repeat the original text for unchanged translations (e.g. 'OK'), 3.Audience: native speakers of each language, 4.Text can be used in Android app UI (limited space, concise translations!). Reply with only a JSON object in the format %s that contains every item exactly once, in the same order and with the same id.", languages, ChatGPTBatch.getResponseSchema(languageCodes));
+
+        ChatGPTMessage role = new ChatGPTMessage("system", roleSystem);
+        ChatGPTMessage msg = new ChatGPTMessage("user", ChatGPTBatch.toItems(texts));
+
+        OpenAIRequest body = new OpenAIRequest(getModelVersion(), List.of(role, msg));
+        // Without the JSON mode, the JSON object is still extracted from the reply, e.g. from a code block.
+        if (SettingsState.getInstance().isOpenAIJsonResponseFormat()) {
+            body.setResponseFormat(OpenAIRequest.ResponseFormat.JSON_OBJECT);
+        }
+        if (isStream) {
+            body.setStream(true);
+        }
+
+        return GsonUtil.getInstance().getGson().toJson(body);
+    }
+
+    @NotNull
+    private List<Map<Lang, String>> parsingResults(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                   @NotNull List<String> texts, @NotNull Reader resultReader) throws IOException {
+        String content = readContent(resultReader);
+        LOG.info("parsingResults ChatGPT: " + content);
+        return toResults(fromLang, toLanguages, texts, content);
+    }
+
+    /**
+     * Parse the streamed reply, the translations of each item are passed to the listener as soon as
+     * they are complete, as long as the items are received in the order of the request.
+     */
+    @NotNull
+    private List<Map<Lang, String>> parsingStream(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts,
+                                                  @NotNull Reader resultReader, @NotNull OnLanguagesTranslatedListener listener) throws IOException {
+        List<String> languageCodes = toLanguages.stream().map(Lang::getCode).collect(Collectors.toList());
+        AtomicInteger nextIndex = new AtomicInteger();
+        ChatGPTStreamParser parser = new ChatGPTStreamParser(item -> {
+            int index = nextIndex.get();
+            // The items out of order are left to the validation of the whole reply.
+            if (index < 0 || index >= texts.size()) return;
+            Map<String, String> translations = ChatGPTBatch.parseItem(item, languageCodes, index + 1);
+            if (translations == null) {
+                nextIndex.set(-1);
+                return;
+            }
+            listener.onTranslated(index, toTranslations(toLanguages, translations));
+            nextIndex.incrementAndGet();
+        });
+        ServerSentEvents.read(resultReader, data -> {
+            if (STREAM_DONE.equals(data)) return false;
+            for (String delta : JsonStreamUtil.readStrings(new StringReader(data), "choices[].delta.content")) {
+                parser.append(delta);
+            }
+            return true;
+        });
+        String content = parser.getContent();
+        LOG.info("parsingStream ChatGPT: " + content);
+        return toResults(fromLang, toLanguages, texts, content);
+    }
+
+    @NotNull
+    private List<Map<Lang, String>> toResults(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                              @NotNull List<String> texts, @NotNull String content) {
+        List<String> languageCodes = toLanguages.stream().map(Lang::getCode).collect(Collectors.toList());
+        List<Map<String, String>> items = ChatGPTBatch.parseTranslations(content, languageCodes, texts.size());
+        if (items == null) {
+            throw new BatchMismatchException(fromLang, toLanguages.get(0), String.join("\n", texts));
+        }
+        List<Map<Lang, String>> results = new ArrayList<>(items.size());
+        for (Map<String, String> item : items) {
+            results.add(toTranslations(toLanguages, item));
+        }
+        return results;
+    }
+
+    @NotNull
+    private static Map<Lang, String> toTranslations(@NotNull List<Lang> toLanguages, @NotNull Map<String, String> item) {
+        Map<Lang, String> translations = new LinkedHashMap<>();
+        for (Lang toLang : toLanguages) {
+            translations.put(toLang, item.get(toLang.getCode()));
+        }
+        return translations;
+    }
+
+    /**
+     * Read the message content of the first choice, the rest of the response is skipped.
+     */
+    @NotNull
+    private String readContent(@NotNull Reader resultReader) throws IOException {
+        List<String> contents = JsonStreamUtil.readStrings(resultReader, "choices[].message.content");
+        return contents.isEmpty() ? "" : contents.get(0).trim();
+    }
 }
@@ -17,11 +17,17 @@
 
 package com.airsaid.localization.translate.impl.openai;
 
+import com.google.gson.annotations.SerializedName;
+
 import java.util.List;
 
 public class OpenAIRequest {
     private String model;
     private List<ChatGPTMessage> messages;
+    @SerializedName("response_format")
+    private ResponseFormat responseFormat;
+    // Makes the reply sent as server-sent events while it is being generated.
+    private Boolean stream;
 
     public OpenAIRequest(String model, List<ChatGPTMessage> messages) {
         this.model = model;
@@ -43,4 +49,35 @@ public class OpenAIRequest {
     public void setMessages(List<ChatGPTMessage> messages) {
         this.messages = messages;
     }
+
+    public ResponseFormat getResponseFormat() {
+        return responseFormat;
+    }
+
+    public void setResponseFormat(ResponseFormat responseFormat) {
+        this.responseFormat = responseFormat;
+    }
+
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
+    public static class ResponseFormat {
+        // Makes the model reply with a valid JSON object.
+        public static final ResponseFormat JSON_OBJECT = new ResponseFormat("json_object");
+
+        private final String type;
+
+        public ResponseFormat(String type) {
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
 }
@@ -21,6 +21,8 @@ import com.airsaid.localization.translate.TranslationResult;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -77,13 +79,28 @@ public class YoudaoTranslationResult implements TranslationResult {
     @Override
     public @NotNull String getTranslationResult() {
         List<String> translation = getTranslation();
-        if (translation != null) {
+        if (translation != null && !translation.isEmpty()) {
             String result = translation.get(0);
             return result != null ? result : "";
         }
         return "";
     }
 
+    /**
+     * Returns the translations of every line of the text, the engine returns the lines joined
+     * with line breaks in a single translation.
+     */
+    public @NotNull List<String> getTranslationResults() {
+        List<String> translation = getTranslation();
+        if (translation == null || translation.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (translation.size() > 1) {
+            return translation;
+        }
+        return Arrays.asList(getTranslationResult().split("\\r?\\n", -1));
+    }
+
     @Override
     public String toString() {
         return "YoudaoTranslationResult{" +
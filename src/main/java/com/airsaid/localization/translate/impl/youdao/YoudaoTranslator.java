@@ -18,35 +18,44 @@
 package com.airsaid.localization.translate.impl.youdao;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
 import com.airsaid.localization.translate.TranslationException;
+import com.airsaid.localization.translate.TranslationRateLimitException;
 import com.airsaid.localization.translate.lang.Lang;
 import com.airsaid.localization.translate.lang.Languages;
 import com.airsaid.localization.translate.util.GsonUtil;
 import com.google.auto.service.AutoService;
 import com.intellij.openapi.util.Pair;
-import com.intellij.util.io.RequestBuilder;
 import icons.PluginIcons;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author airsaid
  */
 @SuppressWarnings(value = {"SpellCheckingInspection", "unused"})
 @AutoService(AbstractTranslator.class)
-public class YoudaoTranslator extends AbstractTranslator {
+public class YoudaoTranslator extends AbstractTranslator implements BatchTranslator {
 
     private static final String KEY = "Youdao";
     private static final String HOST_URL = "https://openapi.youdao.com";
     private static final String TRANSLATE_URL = HOST_URL.concat("/api");
     private static final String APPLY_APP_ID_URL = "https://ai.youdao.com/DOCSIRMA/html/%E8%87%AA%E7%84%B6%E8%AF%AD%E8%A8%80%E7%BF%BB%E8%AF%91/API%E6%96%87%E6%A1%A3/%E6%96%87%E6%9C%AC%E7%BF%BB%E8%AF%91%E6%9C%8D%E5%8A%A1/%E6%96%87%E6%9C%AC%E7%BF%BB%E8%AF%91%E6%9C%8D%E5%8A%A1-API%E6%96%87%E6%A1%A3.html";
+    private static final String ERROR_CODE_ACCESS_LIMIT = "411";
+
+    // The texts of a batch are sent as the lines of a single text, the engine translates every line separately.
+    private static final int MAX_BATCH_SIZE = 100;
+    // The engine rejects the texts longer than 5000 characters.
+    private static final int MAX_BATCH_BYTES = 5000;
 
     private List<Lang> supportedLanguages;
 
@@ -227,18 +236,62 @@ public class YoudaoTranslator extends AbstractTranslator {
     }
 
     @Override
-    public void configureRequestBuilder(@NotNull RequestBuilder requestBuilder) {
-        requestBuilder.tuner(connection -> connection.setRequestProperty("Referer", HOST_URL));
+    public @NotNull List<Pair<String, String>> getRequestParams(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return getRequestParams(fromLang, toLang, joinLines(texts));
+    }
+
+    @Override
+    public void configureRequest(@NotNull HttpRequest.Builder requestBuilder) {
+        requestBuilder.setHeader("Referer", HOST_URL);
     }
 
     @Override
     public @NotNull String parsingResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
         LOG.info("parsingResult: " + resultText);
+        return parseResult(fromLang, toLang, text, resultText).getTranslationResult();
+    }
+
+    @Override
+    public @NotNull List<String> parsingResults(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts, @NotNull String resultText) {
+        LOG.info("parsingResults: " + resultText);
+        String text = joinLines(texts);
+        List<String> results = parseResult(fromLang, toLang, text, resultText).getTranslationResults();
+        if (results.size() != texts.size()) {
+            throw new BatchMismatchException(fromLang, toLang, text);
+        }
+        return results;
+    }
+
+    @NotNull
+    private YoudaoTranslationResult parseResult(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text, @NotNull String resultText) {
         YoudaoTranslationResult translationResult = GsonUtil.getInstance().getGson().fromJson(resultText, YoudaoTranslationResult.class);
         if (translationResult.isSuccess()) {
-            return translationResult.getTranslationResult();
+            return translationResult;
         } else {
+            if (ERROR_CODE_ACCESS_LIMIT.equals(translationResult.getErrorCode())) {
+                throw new TranslationRateLimitException(fromLang, toLang, text, translationResult.getErrorCode(), -1);
+            }
             throw new TranslationException(fromLang, toLang, text, translationResult.getErrorCode());
         }
     }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public int getMaxBatchBytes() {
+        return MAX_BATCH_BYTES;
+    }
+
+    @Override
+    public @NotNull List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) throws TranslationException {
+        return doTranslateLines(fromLang, toLang, texts);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return doTranslateLinesAsync(fromLang, toLang, texts);
+    }
 }
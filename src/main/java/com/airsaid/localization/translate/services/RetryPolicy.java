@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.services;
+
+import com.airsaid.localization.translate.TranslationRateLimitException;
+import com.intellij.util.io.HttpRequests;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed translation request is retried, and how long to wait before retrying.
+ *
+ * @author airsaid
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(6, 1000, 60 * 1000);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final List<Class<? extends Throwable>> retryableExceptions;
+
+    /**
+     * Create the policy that retries the network errors and the rejections of the rate limit.
+     *
+     * @see #RetryPolicy(int, long, long, List)
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        this(maxAttempts, initialBackoffMillis, maxBackoffMillis,
+                List.of(IOException.class, TranslationRateLimitException.class));
+    }
+
+    /**
+     * @param maxAttempts          the maximum number of attempts of a request, including the first one.
+     * @param initialBackoffMillis the backoff time of the first retry, doubled for each following retry.
+     * @param maxBackoffMillis     the maximum backoff time.
+     * @param retryableExceptions  the exceptions that are retryable, an exception is also retryable
+     *                             if one of its causes is an instance of them.
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis,
+                       @NotNull List<Class<? extends Throwable>> retryableExceptions) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+        this.retryableExceptions = retryableExceptions;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns whether the request that failed with the exception should be retried.
+     *
+     * @param attempt the number of the failed attempt, starting from 1.
+     */
+    public boolean shouldRetry(@NotNull Throwable e, int attempt) {
+        return attempt < maxAttempts && isRetryable(e);
+    }
+
+    public boolean isRetryable(@NotNull Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // The client errors, such as an invalid key, fail again with the same request.
+            if (cause instanceof HttpRequests.HttpStatusException &&
+                    ((HttpRequests.HttpStatusException) cause).getStatusCode() < 500) {
+                return false;
+            }
+            for (Class<? extends Throwable> retryableException : retryableExceptions) {
+                if (retryableException.isInstance(cause)) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) break;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the exponential backoff time before retrying the failed attempt, with jitter
+     * so that the concurrent requests do not retry at the same time.
+     *
+     * @param attempt the number of the failed attempt, starting from 1.
+     */
+    public long getBackoffMillis(int attempt) {
+        long backoffMillis = initialBackoffMillis << Math.min(attempt - 1, 30);
+        if (backoffMillis <= 0 || backoffMillis > maxBackoffMillis) {
+            backoffMillis = maxBackoffMillis;
+        }
+        return backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.services;
+
+import com.airsaid.localization.translate.lang.Lang;
+import com.airsaid.localization.translate.util.MD5;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.Normalizer;
+import java.util.Objects;
+
+/**
+ * The key of a translation cache, a cached translation is only reused for the same text
+ * translated by the same translator and model between the same languages.
+ * <p>
+ * The text is kept as the hash of its normalized form, so that the keys have a fixed size
+ * regardless of the length of the text.
+ *
+ * @author airsaid
+ */
+public final class TranslationCacheKey {
+
+    private final String translatorKey;
+    private final String modelVersion;
+    private final String fromLangCode;
+    private final String toLangCode;
+    private final String textHash;
+
+    public TranslationCacheKey(@NotNull String translatorKey, @NotNull String modelVersion,
+                               @NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        this.translatorKey = translatorKey;
+        this.modelVersion = modelVersion;
+        this.fromLangCode = fromLang.getCode();
+        this.toLangCode = toLang.getCode();
+        this.textHash = MD5.md5(normalize(text));
+    }
+
+    /**
+     * Normalize the text, so that the texts that only differ in the Unicode representation have the same key.
+     */
+    @NotNull
+    static String normalize(@NotNull String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TranslationCacheKey that = (TranslationCacheKey) o;
+        return translatorKey.equals(that.translatorKey) &&
+                modelVersion.equals(that.modelVersion) &&
+                fromLangCode.equals(that.fromLangCode) &&
+                toLangCode.equals(that.toLangCode) &&
+                textHash.equals(that.textHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(translatorKey, modelVersion, fromLangCode, toLangCode, textHash);
+    }
+
+    /**
+     * Returns the string form of the key, which is used to store the cache.
+     */
+    @NotNull
+    @Override
+    public String toString() {
+        return translatorKey + ":" + modelVersion + ":" + fromLangCode + ":" + toLangCode + ":" + textHash;
+    }
+}
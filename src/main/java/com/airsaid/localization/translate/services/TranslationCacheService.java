@@ -17,94 +17,71 @@
 
 package com.airsaid.localization.translate.services;
 
-import com.airsaid.localization.translate.util.GsonUtil;
-import com.airsaid.localization.translate.util.LRUCache;
-import com.google.gson.reflect.TypeToken;
+import com.airsaid.localization.translate.util.DiskCacheStore;
 import com.intellij.openapi.Disposable;
-import com.intellij.openapi.components.*;
-import com.intellij.util.xmlb.Converter;
-import com.intellij.util.xmlb.XmlSerializerUtil;
-import com.intellij.util.xmlb.annotations.OptionTag;
-import com.intellij.util.xmlb.annotations.Transient;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Cache the translated text to local disk.
  * <p>
- * The maximum number of caches is set by the {@link #setMaxCacheSize(int)} method,
- * if exceed this size, remove old data through the LRU algorithm.
+ * The caches are stored in an append-only log file under the IDE system directory, which is
+ * loaded on the first access and compacted in the background. Only the recently used caches
+ * are kept in memory, the maximum number of them is set by the {@link #setMaxCacheSize(int)} method.
  *
  * @author airsaid
  */
-@State(
-        name = "com.airsaid.localization.translate.services.TranslationCacheService",
-        storages = {@Storage("androidLocalizeTranslationCaches.xml")}
-)
 @Service
-public final class TranslationCacheService implements PersistentStateComponent<TranslationCacheService>, Disposable {
+public final class TranslationCacheService implements Disposable {
 
-    @Transient
     private static final int CACHE_MAX_SIZE = 500;
+    private static final String CACHE_FILE = "androidLocalize/translation-caches.log";
 
-    @OptionTag(converter = LruCacheConverter.class)
-    private final LRUCache<String, String> lruCache = new LRUCache<>(CACHE_MAX_SIZE);
+    private final DiskCacheStore cacheStore;
+
+    public TranslationCacheService() {
+        Path file = Paths.get(PathManager.getSystemPath(), CACHE_FILE);
+        cacheStore = new DiskCacheStore(file, CACHE_MAX_SIZE, AppExecutorUtil.getAppExecutorService());
+    }
 
     public static TranslationCacheService getInstance() {
         return ServiceManager.getService(TranslationCacheService.class);
     }
 
-    public void put(@NotNull String key, @NotNull String value) {
-        lruCache.put(key, value);
+    public void put(@NotNull TranslationCacheKey key, @NotNull String value) {
+        cacheStore.put(key.toString(), value);
     }
 
     @NotNull
-    public String get(String key) {
-        String value = lruCache.get(key);
+    public String get(@NotNull TranslationCacheKey key) {
+        String value = cacheStore.get(key.toString());
         return value != null ? value : "";
     }
 
     public void setMaxCacheSize(int maxCacheSize) {
-        lruCache.setMaxCapacity(maxCacheSize);
+        cacheStore.setHotCacheSize(maxCacheSize);
     }
 
-    @Override
-    public @NotNull TranslationCacheService getState() {
-        return this;
+    public long getHitCount() {
+        return cacheStore.getHotCache().getHitCount();
     }
 
-    @Override
-    public void loadState(@NotNull TranslationCacheService state) {
-        XmlSerializerUtil.copyBean(state, this);
+    public long getMissCount() {
+        return cacheStore.getHotCache().getMissCount();
     }
 
-    @Override
-    public void dispose() {
-        lruCache.clear();
+    public long getEvictionCount() {
+        return cacheStore.getHotCache().getEvictionCount();
     }
 
-    static class LruCacheConverter extends Converter<LRUCache<String, String>> {
-        @Override
-        public @Nullable LRUCache<String, String> fromString(@NotNull String value) {
-            Type type = new TypeToken<Map<String, String>>() {
-            }.getType();
-            Map<String, String> map = GsonUtil.getInstance().getGson().fromJson(value, type);
-            LRUCache<String, String> lruCache = new LRUCache<>(CACHE_MAX_SIZE);
-            for (Map.Entry<String, String> entry : map.entrySet()) {
-                lruCache.put(entry.getKey(), entry.getValue());
-            }
-            return lruCache;
-        }
-
-        @Override
-        public @Nullable String toString(@NotNull LRUCache<String, String> lruCache) {
-            Map<String, String> values = new LinkedHashMap<>();
-            lruCache.forEach(values::put);
-            return GsonUtil.getInstance().getGson().toJson(values);
-        }
+    @Override
+    public void dispose() {
+        cacheStore.close();
     }
 }
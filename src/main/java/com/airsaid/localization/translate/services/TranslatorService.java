@@ -18,19 +18,37 @@
 package com.airsaid.localization.translate.services;
 
 import com.airsaid.localization.translate.AbstractTranslator;
+import com.airsaid.localization.translate.BatchTranslator;
+import com.airsaid.localization.translate.IncompleteBatchException;
+import com.airsaid.localization.translate.MultiTargetTranslator;
+import com.airsaid.localization.translate.StreamingTranslator;
+import com.airsaid.localization.translate.TranslationException;
+import com.airsaid.localization.translate.TranslationRateLimitException;
 import com.airsaid.localization.translate.impl.google.GoogleTranslator;
 import com.airsaid.localization.translate.interceptors.EscapeCharactersInterceptor;
 import com.airsaid.localization.translate.lang.Lang;
+import com.airsaid.localization.translate.util.ConcurrencyLimiter;
+import com.airsaid.localization.translate.util.RateLimiter;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * @author airsaid
@@ -43,9 +61,13 @@ public final class TranslatorService {
     private final TranslationCacheService cacheService;
     private final Map<String, AbstractTranslator> translators;
     private final List<TranslationInterceptor> translationInterceptors;
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+    // The requests in progress, so that the concurrent requests of the same text share one result.
+    private final Map<TranslationCacheKey, InFlightText> inFlightRequests = new ConcurrentHashMap<>();
     private AbstractTranslator selectedTranslator;
     private boolean isEnableCache = true;
-    private int intervalTime;
+    private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
 
     public TranslatorService() {
         translators = new LinkedHashMap<>();
@@ -97,33 +119,522 @@ public final class TranslatorService {
     }
 
     public String doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return await(doTranslateAsync(fromLang, toLang, text), fromLang, toLang, text);
+    }
+
+    /**
+     * Translate the text without blocking the caller, the request is sent within the rate limit of the
+     * selected translator and retried according to the {@link RetryPolicy} on the shared scheduler,
+     * so any number of requests can be in flight without occupying a thread each.
+     *
+     * @return the future of the translated text, which completes exceptionally with a
+     * {@link TranslationException} if the translation failed.
+     */
+    public CompletableFuture<String> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
         LOG.info(String.format("doTranslate fromLang: %s, toLang: %s, text: %s", fromLang, toLang, text));
 
+        TranslationCacheKey cacheKey = getCacheKey(fromLang, toLang, text);
         if (isEnableCache) {
-            String cacheResult = cacheService.get(getCacheKey(fromLang, toLang, text));
+            String cacheResult = cacheService.get(cacheKey);
             if (!cacheResult.isEmpty()) {
                 LOG.info(String.format("doTranslate cache result: %s", cacheResult));
-                return cacheResult;
+                return CompletableFuture.completedFuture(cacheResult);
             }
         }
 
         // Arabic numbers skip translation
         if (StringUtils.isNumeric(text)) {
-            return text;
+            return CompletableFuture.completedFuture(text);
+        }
+
+        SharedRequest sharedRequest = new SharedRequest();
+        InFlightText flight = new InFlightText(sharedRequest);
+        CompletableFuture<String> subscription = registerOrSubscribe(cacheKey, flight);
+        if (subscription != null) {
+            LOG.info("doTranslate wait for the in-flight request of the same text.");
+            return subscription;
+        }
+        final AbstractTranslator translator = selectedTranslator;
+        final String validText = getValidContent(text);
+        CompletableFuture<String> request = requestAsync(translator, validText.length(),
+                () -> translator.doTranslateAsync(fromLang, toLang, validText));
+        sharedRequest.setRequest(request);
+        request.whenComplete((result, error) -> {
+            try {
+                if (error != null) {
+                    flight.result.completeExceptionally(unwrap(error));
+                    return;
+                }
+                LOG.info(String.format("doTranslate result: %s", result));
+                result = intercept(result);
+                LOG.info(String.format("doTranslate interceptor process result: %s", result));
+                cacheService.put(cacheKey, result);
+                flight.result.complete(result);
+            } catch (RuntimeException e) {
+                flight.result.completeExceptionally(e);
+            } finally {
+                inFlightRequests.remove(cacheKey, flight);
+            }
+        });
+        return sharedRequest.observe(flight.result);
+    }
+
+    /**
+     * Translate multiple texts, the texts that are not cached are translated with a single request
+     * if the selected translator is a {@link BatchTranslator}, otherwise they are translated one by one.
+     * <p>
+     * Identical texts are only translated once, and a text that is being translated by another request
+     * is not sent again, the request waits for the result of the other request instead.
+     * <p>
+     * The texts should not exceed the {@link #getMaxBatchSize()} and {@link #getMaxBatchBytes()} limits.
+     *
+     * @return the translated texts, in the same order as the given texts.
+     */
+    public List<String> doTranslate(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return await(doTranslateAsync(fromLang, toLang, texts), fromLang, toLang, String.join("\n", texts));
+    }
+
+    /**
+     * The asynchronous version of {@link #doTranslate(Lang, Lang, List)}, the texts of a translator that
+     * is not a {@link BatchTranslator} are all in flight at the same time.
+     *
+     * @return the future of the translated texts, in the same order as the given texts.
+     */
+    public CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts) {
+        return doTranslateAsync(fromLang, toLang, texts, null);
+    }
+
+    /**
+     * The version of {@link #doTranslateAsync(Lang, Lang, List)} that reports each distinct text as soon as
+     * its translation is available: when the text is found in the cache, when its request completes, or,
+     * if the selected translator is a {@link StreamingTranslator}, when its part of the reply is received.
+     * <p>
+     * Cancelling the returned future aborts the requests of the texts, unless other translations wait for them.
+     *
+     * @param listener the listener of the translated texts, called on the thread that completes the translation.
+     * @return the future of the translated texts, in the same order as the given texts.
+     */
+    public CompletableFuture<List<String>> doTranslateAsync(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull List<String> texts,
+                                                            @Nullable OnTextTranslatedListener listener) {
+        Map<String, List<Integer>> textIndices = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            textIndices.computeIfAbsent(texts.get(i), key -> new ArrayList<>()).add(i);
+        }
+        String[] results = new String[texts.size()];
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        // The translations of this call, which are cancelled when the returned future is cancelled.
+        List<CompletableFuture<?>> subscriptions = new ArrayList<>();
+        if (!(selectedTranslator instanceof BatchTranslator) || textIndices.size() <= 1) {
+            textIndices.forEach((text, indices) -> {
+                CompletableFuture<String> translation = doTranslateAsync(fromLang, toLang, text);
+                subscriptions.add(translation);
+                futures.add(translation.thenAccept(result -> {
+                    setResult(results, indices, result);
+                    notifyTranslated(listener, text, result);
+                }));
+            });
+            return cancelling(allOf(futures).thenApply(ignored -> Arrays.asList(results)), subscriptions);
+        }
+        LOG.info(String.format("doTranslate fromLang: %s, toLang: %s, texts: %s", fromLang, toLang, texts));
+
+        List<String> pendingTexts = new ArrayList<>();
+        List<TranslationCacheKey> pendingKeys = new ArrayList<>();
+        List<InFlightText> pendingFlights = new ArrayList<>();
+        Map<String, CompletableFuture<String>> inFlightTexts = new LinkedHashMap<>();
+        SharedRequest sharedRequest = new SharedRequest();
+        for (Map.Entry<String, List<Integer>> entry : textIndices.entrySet()) {
+            String text = entry.getKey();
+            TranslationCacheKey cacheKey = getCacheKey(fromLang, toLang, text);
+            if (isEnableCache) {
+                String cacheResult = cacheService.get(cacheKey);
+                if (!cacheResult.isEmpty()) {
+                    setResult(results, entry.getValue(), cacheResult);
+                    notifyTranslated(listener, text, cacheResult);
+                    continue;
+                }
+            }
+            // Arabic numbers skip translation
+            if (StringUtils.isNumeric(text)) {
+                setResult(results, entry.getValue(), text);
+                notifyTranslated(listener, text, text);
+                continue;
+            }
+            InFlightText flight = new InFlightText(sharedRequest);
+            CompletableFuture<String> subscription = registerOrSubscribe(cacheKey, flight);
+            if (subscription != null) {
+                inFlightTexts.put(text, subscription);
+                subscriptions.add(subscription);
+                continue;
+            }
+            pendingTexts.add(text);
+            pendingKeys.add(cacheKey);
+            pendingFlights.add(flight);
+        }
+        LOG.info(String.format("doTranslate distinct: %d, pending: %d, in-flight: %d",
+                textIndices.size(), pendingTexts.size(), inFlightTexts.size()));
+
+        if (!pendingTexts.isEmpty()) {
+            final AbstractTranslator translator = selectedTranslator;
+            List<String> validTexts = new ArrayList<>(pendingTexts.size());
+            for (String text : pendingTexts) {
+                validTexts.add(getValidContent(text));
+            }
+            final boolean isStreaming = listener != null && translator instanceof StreamingTranslator;
+            CompletableFuture<List<String>> batchRequest = requestAsync(translator, getLength(validTexts), () -> isStreaming ?
+                    ((StreamingTranslator) translator).doTranslateAsync(fromLang, toLang, validTexts, (index, translatedText) ->
+                            listener.onTextTranslated(pendingTexts.get(index), intercept(translatedText))) :
+                    translator.doTranslateAsync(fromLang, toLang, validTexts));
+            List<CompletableFuture<?>> requests = new CopyOnWriteArrayList<>(List.of(batchRequest));
+            CompletableFuture<List<String>> request = cancelling(batchRequest
+                    .handle((translatedTexts, error) -> error == null ? CompletableFuture.completedFuture(translatedTexts) :
+                            translateIncomplete(translator, fromLang, toLang, pendingKeys, validTexts, unwrap(error), requests))
+                    .thenCompose(Function.identity()), requests);
+            sharedRequest.setRequest(request);
+            subscriptions.add(sharedRequest.observe(request));
+            futures.add(request
+                    .handle((translatedTexts, error) -> {
+                        try {
+                            if (error != null) {
+                                throw unwrap(error);
+                            }
+                            for (int i = 0; i < pendingTexts.size(); i++) {
+                                String result = intercept(translatedTexts.get(i));
+                                cacheService.put(pendingKeys.get(i), result);
+                                pendingFlights.get(i).result.complete(result);
+                                setResult(results, textIndices.get(pendingTexts.get(i)), result);
+                                // The streamed texts have been reported when they were received.
+                                if (!isStreaming) {
+                                    notifyTranslated(listener, pendingTexts.get(i), result);
+                                }
+                            }
+                            return null;
+                        } catch (RuntimeException e) {
+                            pendingFlights.forEach(flight -> flight.result.completeExceptionally(e));
+                            throw e;
+                        } finally {
+                            for (int i = 0; i < pendingKeys.size(); i++) {
+                                inFlightRequests.remove(pendingKeys.get(i), pendingFlights.get(i));
+                            }
+                        }
+                    }));
+        }
+        inFlightTexts.forEach((text, inFlight) -> futures.add(inFlight
+                .thenAccept(result -> {
+                    setResult(results, textIndices.get(text), result);
+                    notifyTranslated(listener, text, result);
+                })));
+        return cancelling(allOf(futures).thenApply(ignored -> {
+            LOG.info(String.format("doTranslate results: %s", Arrays.toString(results)));
+            return Arrays.asList(results);
+        }), subscriptions);
+    }
+
+    private static void notifyTranslated(@Nullable OnTextTranslatedListener listener, @NotNull String text, @NotNull String result) {
+        if (listener != null) {
+            listener.onTextTranslated(text, result);
+        }
+    }
+
+    private static void notifyTranslated(@Nullable OnMultiTargetTextTranslatedListener listener, @NotNull Lang toLang,
+                                         @NotNull String text, @NotNull String result) {
+        if (listener != null) {
+            listener.onTextTranslated(toLang, text, result);
+        }
+    }
+
+    /**
+     * Cancel the requests when the future is cancelled, the future usually depends on the requests,
+     * but cancelling a dependent future does not cancel the futures it depends on.
+     */
+    @NotNull
+    private static <T> CompletableFuture<T> cancelling(@NotNull CompletableFuture<T> future,
+                                                       @NotNull List<? extends CompletableFuture<?>> requests) {
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                requests.forEach(request -> request.cancel(false));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Translate the texts that a batch request did not translate one by one, see {@link IncompleteBatchException}.
+     * Each request goes through the limits of the translator and is retried on its own, and the translated texts
+     * are cached as soon as they are received, so they are kept even if the other texts fail.
+     *
+     * @param error    the error of the batch request, the future fails with it if it is not {@link IncompleteBatchException}.
+     * @param requests the requests of the batch, the requests of the texts are added to be cancelled with them.
+     * @return the future of the translated texts, in the same order as the given texts.
+     */
+    @NotNull
+    private CompletableFuture<List<String>> translateIncomplete(@NotNull AbstractTranslator translator,
+                                                                @NotNull Lang fromLang, @NotNull Lang toLang,
+                                                                @NotNull List<TranslationCacheKey> cacheKeys,
+                                                                @NotNull List<String> texts,
+                                                                @NotNull RuntimeException error,
+                                                                @NotNull List<CompletableFuture<?>> requests) {
+        if (!(error instanceof IncompleteBatchException)) {
+            return CompletableFuture.failedFuture(error);
+        }
+        String[] results = ((IncompleteBatchException) error).getResults().toArray(new String[0]);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            final int index = i;
+            final String text = texts.get(i);
+            CompletableFuture<String> request = requestAsync(translator, text.length(),
+                    () -> translator.doTranslateAsync(fromLang, toLang, text));
+            requests.add(request);
+            futures.add(request.thenAccept(result -> {
+                results[index] = result;
+                cacheService.put(cacheKeys.get(index), intercept(result));
+            }));
+        }
+        LOG.info(String.format("translateIncomplete translate the texts one by one: %d", futures.size()));
+        return allOf(futures).thenApply(ignored -> Arrays.asList(results));
+    }
+
+    /**
+     * Register the text as translated by the request of the flight, unless another request is translating the same text.
+     *
+     * @return the subscription to the result of the other request, or null if the text is registered.
+     */
+    @Nullable
+    private CompletableFuture<String> registerOrSubscribe(@NotNull TranslationCacheKey cacheKey, @NotNull InFlightText flight) {
+        while (true) {
+            InFlightText inFlight = inFlightRequests.putIfAbsent(cacheKey, flight);
+            if (inFlight == null) {
+                flight.request.addText(cacheKey, flight);
+                return null;
+            }
+            CompletableFuture<String> subscription = inFlight.subscribe();
+            if (subscription != null) {
+                return subscription;
+            }
+            // All translations that waited for the other request are cancelled, so it is not used anymore.
+            inFlightRequests.remove(cacheKey, inFlight);
+        }
+    }
+
+    private static void setResult(@NotNull String[] results, @NotNull List<Integer> indices, @NotNull String result) {
+        for (int index : indices) {
+            results[index] = result;
+        }
+    }
+
+    @NotNull
+    private static CompletableFuture<Void> allOf(@NotNull List<CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Wait for the result of the asynchronous translation, the translation is cancelled if the waiting thread is interrupted.
+     */
+    private static <T> T await(@NotNull CompletableFuture<T> future,
+                               @NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new TranslationException(fromLang, toLang, text, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslationException) {
+                throw (TranslationException) cause;
+            }
+            throw new TranslationException(fromLang, toLang, text, cause);
+        }
+    }
+
+    /**
+     * Returns the actual error of a future that completed exceptionally.
+     */
+    @NotNull
+    private static RuntimeException unwrap(@NotNull Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException ? (RuntimeException) error : new CompletionException(error);
+    }
+
+    /**
+     * Returns whether the selected translator can translate a text into multiple languages with a single request.
+     */
+    public boolean isSupportMultiTarget() {
+        return selectedTranslator instanceof MultiTargetTranslator;
+    }
+
+    /**
+     * Translate the text into multiple languages. If the selected translator is a {@link MultiTargetTranslator},
+     * the languages that are not cached are translated with a single request.
+     *
+     * @return the translated text of each target language.
+     */
+    public Map<Lang, String> doTranslate(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull String text) {
+        Map<Lang, String> results = new LinkedHashMap<>();
+        doTranslate(fromLang, toLanguages, List.of(text)).forEach((toLang, translatedTexts) ->
+                results.put(toLang, translatedTexts.get(0)));
+        return results;
+    }
+
+    /**
+     * Translate the texts into multiple languages. If the selected translator is a {@link MultiTargetTranslator},
+     * the texts that are not cached are translated into all languages with a single request.
+     * <p>
+     * The texts should not exceed the {@link #getMaxBatchSize()} and {@link #getMaxBatchBytes(int)} limits
+     * of the number of languages.
+     *
+     * @return the translated texts of each target language, in the same order as the given texts.
+     */
+    public Map<Lang, List<String>> doTranslate(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages, @NotNull List<String> texts) {
+        return await(doTranslateAsync(fromLang, toLanguages, texts), fromLang, toLanguages.get(0), String.join("\n", texts));
+    }
+
+    /**
+     * The asynchronous version of {@link #doTranslate(Lang, List, List)}, cancelling the returned future
+     * aborts the requests in progress.
+     *
+     * @return the future of the translated texts of each target language, in the same order as the given texts.
+     */
+    public CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                       @NotNull List<String> texts) {
+        return doTranslateAsync(fromLang, toLanguages, texts, null);
+    }
+
+    /**
+     * The version of {@link #doTranslateAsync(Lang, List, List)} that reports the translation of each text
+     * into each language as soon as it is available: when the text is found in the cache, or when the translator
+     * receives its part of the reply, e.g. from a streamed reply of a {@link StreamingTranslator}.
+     *
+     * @param listener the listener of the translated texts, called on the thread that receives the translations.
+     * @return the future of the translated texts of each target language, in the same order as the given texts.
+     */
+    public CompletableFuture<Map<Lang, List<String>>> doTranslateAsync(@NotNull Lang fromLang, @NotNull List<Lang> toLanguages,
+                                                                       @NotNull List<String> texts,
+                                                                       @Nullable OnMultiTargetTextTranslatedListener listener) {
+        if (!(selectedTranslator instanceof MultiTargetTranslator)) {
+            Map<Lang, CompletableFuture<List<String>>> translations = new LinkedHashMap<>();
+            for (Lang toLang : toLanguages) {
+                translations.put(toLang, doTranslateAsync(fromLang, toLang, texts, listener == null ? null :
+                        (text, translatedText) -> listener.onTextTranslated(toLang, text, translatedText)));
+            }
+            List<CompletableFuture<?>> futures = new ArrayList<>(translations.values());
+            return cancelling(allOf(futures).thenApply(ignored -> {
+                Map<Lang, List<String>> results = new LinkedHashMap<>();
+                translations.forEach((toLang, translation) -> results.put(toLang, translation.join()));
+                return results;
+            }), futures);
         }
-        text = getValidContent(text);
+        LOG.info(String.format("doTranslate fromLang: %s, toLanguages: %s, texts: %s", fromLang, toLanguages, texts));
+
+        Map<Lang, String[]> translatedTexts = new LinkedHashMap<>();
+        List<Integer> pendingIndices = new ArrayList<>();
+        List<String> pendingTexts = new ArrayList<>();
+        Set<Lang> pendingLanguages = new LinkedHashSet<>();
+        for (Lang toLang : toLanguages) {
+            translatedTexts.put(toLang, new String[texts.size()]);
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            boolean isPending = false;
+            for (Lang toLang : toLanguages) {
+                String cacheResult = isEnableCache ? cacheService.get(getCacheKey(fromLang, toLang, text)) : "";
+                if (!cacheResult.isEmpty()) {
+                    translatedTexts.get(toLang)[i] = cacheResult;
+                    notifyTranslated(listener, toLang, text, cacheResult);
+                } else if (StringUtils.isNumeric(text)) {
+                    // Arabic numbers skip translation
+                    translatedTexts.get(toLang)[i] = text;
+                    notifyTranslated(listener, toLang, text, text);
+                } else {
+                    pendingLanguages.add(toLang);
+                    isPending = true;
+                }
+            }
+            if (isPending) {
+                pendingIndices.add(i);
+                pendingTexts.add(getValidContent(text));
+            }
+        }
+        LOG.info(String.format("doTranslate pending texts: %d, pending languages: %s", pendingTexts.size(), pendingLanguages));
+
+        if (pendingTexts.isEmpty()) {
+            return CompletableFuture.completedFuture(toResults(translatedTexts));
+        }
+        final AbstractTranslator translator = selectedTranslator;
+        final List<Lang> languages = new ArrayList<>(pendingLanguages);
+        CompletableFuture<Map<Lang, List<String>>> request = requestAsync(translator, getLength(pendingTexts) * languages.size(),
+                () -> listener == null ?
+                        ((MultiTargetTranslator) translator).doTranslateAsync(fromLang, languages, pendingTexts) :
+                        ((MultiTargetTranslator) translator).doTranslateAsync(fromLang, languages, pendingTexts, (index, results) ->
+                                results.forEach((toLang, result) -> {
+                                    int textIndex = pendingIndices.get(index);
+                                    // The languages that did not need the text have reported its cached result.
+                                    if (translatedTexts.get(toLang)[textIndex] == null) {
+                                        listener.onTextTranslated(toLang, texts.get(textIndex), intercept(result));
+                                    }
+                                })));
+        return cancelling(request.thenApply(pendingResults -> {
+            for (Lang toLang : languages) {
+                List<String> pendingResult = pendingResults.get(toLang);
+                if (pendingResult == null || pendingResult.size() != pendingTexts.size()) {
+                    throw new TranslationException(fromLang, toLang, String.join("\n", pendingTexts), "Missing translation results.");
+                }
+                for (int i = 0; i < pendingTexts.size(); i++) {
+                    String result = intercept(pendingResult.get(i));
+                    cacheService.put(getCacheKey(fromLang, toLang, texts.get(pendingIndices.get(i))), result);
+                    String[] languageResults = translatedTexts.get(toLang);
+                    // Keep the cached result of the languages that did not need this text.
+                    if (languageResults[pendingIndices.get(i)] == null) {
+                        languageResults[pendingIndices.get(i)] = result;
+                    }
+                }
+            }
+            return toResults(translatedTexts);
+        }), List.of(request));
+    }
+
+    @NotNull
+    private static Map<Lang, List<String>> toResults(@NotNull Map<Lang, String[]> translatedTexts) {
+        Map<Lang, List<String>> results = new LinkedHashMap<>();
+        translatedTexts.forEach((toLang, languageResults) -> results.put(toLang, Arrays.asList(languageResults)));
+        return results;
+    }
 
-        String result = selectedTranslator.doTranslate(fromLang, toLang, text);
-        LOG.info(String.format("doTranslate result: %s", result));
+    @NotNull
+    private String intercept(@NotNull String result) {
         for (TranslationInterceptor interceptor : translationInterceptors) {
             result = interceptor.process(result);
-            LOG.info(String.format("doTranslate interceptor process result: %s", result));
         }
-        cacheService.put(getCacheKey(fromLang, toLang, text), result);
-        delay(intervalTime);
         return result;
     }
 
+    /**
+     * Returns the maximum number of texts that can be translated by {@link #doTranslate(Lang, Lang, List)}
+     * with a single request of the selected translator.
+     */
+    public int getMaxBatchSize() {
+        return selectedTranslator instanceof BatchTranslator ? ((BatchTranslator) selectedTranslator).getMaxBatchSize() : 1;
+    }
+
+    /**
+     * Returns the maximum number of UTF-8 bytes of the texts that can be translated by
+     * {@link #doTranslate(Lang, Lang, List)} with a single request of the selected translator.
+     */
+    public int getMaxBatchBytes() {
+        return selectedTranslator instanceof BatchTranslator ? ((BatchTranslator) selectedTranslator).getMaxBatchBytes() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the maximum number of UTF-8 bytes of the texts that can be translated into the given number of languages
+     * by {@link #doTranslate(Lang, List, List)} with a single request of the selected translator.
+     */
+    public int getMaxBatchBytes(int languageCount) {
+        return selectedTranslator instanceof MultiTargetTranslator ?
+                ((MultiTargetTranslator) selectedTranslator).getMaxBatchBytes(languageCount) : getMaxBatchBytes();
+    }
+
     /**
      * Remove double quotes from the beginning and end of text sentences
      *
@@ -157,25 +668,241 @@ public final class TranslatorService {
         cacheService.setMaxCacheSize(maxCacheSize);
     }
 
-    public void setTranslationInterval(int intervalTime) {
-        this.intervalTime = intervalTime;
+    /**
+     * Set the rate limit of the translator, the limiter is shared by all translation tasks of the translator.
+     *
+     * @param translatorKey       the key of the translator.
+     * @param requestsPerSecond   the number of requests per second, no limit if less than or equal to 0.
+     * @param burst               the maximum number of requests that can be sent without waiting.
+     * @param charactersPerMinute the number of characters per minute, no limit if less than or equal to 0.
+     */
+    public void setRateLimit(@NotNull String translatorKey, double requestsPerSecond, int burst, int charactersPerMinute) {
+        LOG.info(String.format("setRateLimit: %s, requestsPerSecond: %s, burst: %d, charactersPerMinute: %d",
+                translatorKey, requestsPerSecond, burst, charactersPerMinute));
+        rateLimiters.compute(translatorKey, (key, rateLimiter) -> {
+            if (rateLimiter == null) {
+                return new RateLimiter(requestsPerSecond, burst, charactersPerMinute);
+            }
+            rateLimiter.setRate(requestsPerSecond, burst, charactersPerMinute);
+            return rateLimiter;
+        });
     }
 
-    private String getCacheKey(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
-        return fromLang.getCode() + "_" + toLang.getCode() + "_" + text;
+    /**
+     * Set the maximum number of requests of the translator in progress at the same time, the limit
+     * is shared by all translation tasks of the translator.
+     *
+     * @param translatorKey         the key of the translator.
+     * @param maxConcurrentRequests the maximum number of requests, no limit if less than or equal to 0.
+     */
+    public void setMaxConcurrentRequests(@NotNull String translatorKey, int maxConcurrentRequests) {
+        LOG.info(String.format("setMaxConcurrentRequests: %s, maxConcurrentRequests: %d", translatorKey, maxConcurrentRequests));
+        concurrencyLimiters.compute(translatorKey, (key, concurrencyLimiter) -> {
+            if (concurrencyLimiter == null) {
+                return new ConcurrencyLimiter(maxConcurrentRequests);
+            }
+            concurrencyLimiter.setMaxConcurrency(maxConcurrentRequests);
+            return concurrencyLimiter;
+        });
     }
 
-    private void delay(int second) {
-        if (second <= 0) return;
-        try {
-            LOG.info(String.format("doTranslate delay time: %d second.", second));
-            Thread.sleep(second * 1000L);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    public void setRetryPolicy(@NotNull RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    private TranslationCacheKey getCacheKey(@NotNull Lang fromLang, @NotNull Lang toLang, @NotNull String text) {
+        return new TranslationCacheKey(selectedTranslator.getKey(), selectedTranslator.getModelVersion(),
+                fromLang, toLang, getValidContent(text));
+    }
+
+    /**
+     * Send a request of the translator within its rate limit without blocking, the failed request is retried
+     * according to the {@link RetryPolicy}. When the engine rejects the request because the rate limit
+     * is exceeded, the request rate is decreased and all requests are paused for the backoff time,
+     * the rate increases again with each successful request.
+     * <p>
+     * The number of requests in progress is limited by the maximum concurrent requests of the translator.
+     * The requests waiting for the rate limit or a retry are delayed on the shared scheduler instead of
+     * sleeping, and cancelling the returned future stops the retries and cancels the request in progress.
+     *
+     * @param characters the number of characters of the request.
+     */
+    private <T> CompletableFuture<T> requestAsync(@NotNull AbstractTranslator translator, int characters,
+                                                  @NotNull Supplier<CompletableFuture<T>> request) {
+        RateLimiter rateLimiter = rateLimiters.computeIfAbsent(translator.getKey(),
+                key -> new RateLimiter(0, 1, 0));
+        ConcurrencyLimiter concurrencyLimiter = concurrencyLimiters.computeIfAbsent(translator.getKey(),
+                key -> new ConcurrencyLimiter(0));
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> currentAttempt = new AtomicReference<>();
+        result.whenComplete((value, error) -> {
+            CompletableFuture<T> future = currentAttempt.get();
+            if (result.isCancelled() && future != null) {
+                future.cancel(false);
+            }
+        });
+        sendAsync(rateLimiter, concurrencyLimiter, characters, request, 1, result, currentAttempt);
+        return result;
+    }
+
+    private <T> void sendAsync(@NotNull RateLimiter rateLimiter, @NotNull ConcurrencyLimiter concurrencyLimiter, int characters,
+                               @NotNull Supplier<CompletableFuture<T>> request,
+                               int attempt, @NotNull CompletableFuture<T> result,
+                               @NotNull AtomicReference<CompletableFuture<T>> currentAttempt) {
+        if (result.isDone()) return;
+        schedule(rateLimiter.reserve(characters), () -> concurrencyLimiter.acquire().thenRun(() -> {
+            if (result.isDone()) {
+                concurrencyLimiter.release();
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = request.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            currentAttempt.set(future);
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+            future.whenComplete((value, error) -> {
+                concurrencyLimiter.release();
+                if (error == null) {
+                    rateLimiter.onSuccess();
+                    result.complete(value);
+                    return;
+                }
+                RuntimeException e = unwrap(error);
+                if (!retryPolicy.shouldRetry(e, attempt)) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                long backoffMillis;
+                if (e instanceof TranslationRateLimitException) {
+                    long retryAfterMillis = ((TranslationRateLimitException) e).getRetryAfterMillis();
+                    long pauseMillis = retryAfterMillis >= 0 ? retryAfterMillis : retryPolicy.getBackoffMillis(attempt);
+                    LOG.info(String.format("doTranslate rate limited, retry after %d ms.", pauseMillis));
+                    // The pause is applied to the reservation of the next attempt.
+                    rateLimiter.onRateLimited(TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+                    backoffMillis = 0;
+                } else {
+                    backoffMillis = retryPolicy.getBackoffMillis(attempt);
+                    LOG.info(String.format("doTranslate failed, attempt: %d, retry after %d ms.", attempt, backoffMillis));
+                }
+                schedule(TimeUnit.MILLISECONDS.toNanos(backoffMillis),
+                        () -> sendAsync(rateLimiter, concurrencyLimiter, characters, request, attempt + 1, result, currentAttempt));
+            });
+        }));
+    }
+
+    private static void schedule(long delayNanos, @NotNull Runnable runnable) {
+        if (delayNanos <= 0) {
+            runnable.run();
+        } else {
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(runnable, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static int getLength(@NotNull List<String> texts) {
+        int length = 0;
+        for (String text : texts) {
+            length += text.length();
+        }
+        return length;
+    }
+
+    /**
+     * The result of a text that is being translated by a {@link SharedRequest}.
+     */
+    private static final class InFlightText {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final SharedRequest request;
+
+        InFlightText(@NotNull SharedRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * Returns the future of the result for another translation of the text, or null if the request is cancelled.
+         */
+        @Nullable
+        CompletableFuture<String> subscribe() {
+            return request.subscribe() ? request.observe(result) : null;
+        }
+    }
+
+    /**
+     * A request in progress, shared by the translations that wait for its texts. Each translation subscribes to
+     * the request, and the request is only cancelled when all of them are cancelled, so cancelling one translation
+     * does not fail the others, and the request does not keep retrying when no one waits for it.
+     */
+    private final class SharedRequest {
+        private final Map<TranslationCacheKey, InFlightText> texts = new LinkedHashMap<>();
+        private CompletableFuture<?> request;
+        // The translation that sends the request is the first subscriber.
+        private int subscribers = 1;
+        private boolean isCancelled;
+
+        synchronized void addText(@NotNull TranslationCacheKey cacheKey, @NotNull InFlightText flight) {
+            texts.put(cacheKey, flight);
+        }
+
+        synchronized void setRequest(@NotNull CompletableFuture<?> request) {
+            this.request = request;
+            if (isCancelled) {
+                request.cancel(false);
+            }
+        }
+
+        synchronized boolean subscribe() {
+            if (isCancelled) return false;
+            subscribers++;
+            return true;
+        }
+
+        /**
+         * Returns a copy of the future for a subscriber, cancelling the copy unsubscribes from the request.
+         */
+        @NotNull
+        <T> CompletableFuture<T> observe(@NotNull CompletableFuture<T> future) {
+            CompletableFuture<T> copy = future.copy();
+            copy.whenComplete((value, error) -> {
+                if (copy.isCancelled()) {
+                    unsubscribe();
+                }
+            });
+            return copy;
+        }
+
+        private synchronized void unsubscribe() {
+            if (isCancelled || --subscribers > 0) return;
+            isCancelled = true;
+            // The texts are translated by a new request from now on.
+            texts.forEach(inFlightRequests::remove);
+            if (request != null) {
+                request.cancel(false);
+            }
         }
     }
 
     public interface TranslationInterceptor {
         String process(String text);
     }
+
+    public interface OnTextTranslatedListener {
+        /**
+         * @param text           the source text.
+         * @param translatedText the translated text, processed by the interceptors.
+         */
+        void onTextTranslated(@NotNull String text, @NotNull String translatedText);
+    }
+
+    public interface OnMultiTargetTextTranslatedListener {
+        /**
+         * @param toLang         the language that the text is translated into.
+         * @param text           the source text.
+         * @param translatedText the translated text, processed by the interceptors.
+         */
+        void onTextTranslated(@NotNull Lang toLang, @NotNull String text, @NotNull String translatedText);
+    }
 }
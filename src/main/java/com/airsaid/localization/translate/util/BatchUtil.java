@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author airsaid
+ */
+public class BatchUtil {
+
+    private BatchUtil() {
+        throw new AssertionError("No com.airsaid.localization.translate.util.BatchUtil instances for you!");
+    }
+
+    /**
+     * Split the texts into consecutive chunks, each chunk has at most {@code maxSize} texts
+     * and {@code maxBytes} UTF-8 bytes. A text larger than {@code maxBytes} is put into a chunk by itself.
+     *
+     * @param texts    the texts to split.
+     * @param maxSize  the maximum number of texts of a chunk.
+     * @param maxBytes the maximum number of UTF-8 bytes of a chunk.
+     * @return the chunks, in the same order as the given texts.
+     */
+    @NotNull
+    public static List<List<String>> chunk(@NotNull List<String> texts, int maxSize, int maxBytes) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Illegal max size: " + maxSize);
+        }
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        long chunkBytes = 0;
+        for (String text : texts) {
+            int bytes = getByteLength(text);
+            if (!chunk.isEmpty() && (chunk.size() >= maxSize || chunkBytes + bytes > maxBytes)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(text);
+            chunkBytes += bytes;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    public static int getByteLength(@NotNull String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
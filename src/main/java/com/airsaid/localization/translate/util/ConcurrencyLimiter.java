@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Limits the number of requests in progress at the same time without blocking: the permit of a request
+ * beyond the limit is a future that completes when a request in progress releases its permit.
+ * <p>
+ * The limiter is thread-safe, and the waiting requests get their permits in the order of their calls.
+ *
+ * @author airsaid
+ */
+public class ConcurrencyLimiter {
+
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int maxConcurrency;
+    private int inProgress;
+
+    /**
+     * @param maxConcurrency the maximum number of requests in progress, no limit if less than or equal to 0.
+     */
+    public ConcurrencyLimiter(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        List<CompletableFuture<Void>> permits = new ArrayList<>();
+        synchronized (this) {
+            this.maxConcurrency = maxConcurrency;
+            while (!waiters.isEmpty() && isAvailable()) {
+                inProgress++;
+                permits.add(waiters.poll());
+            }
+        }
+        permits.forEach(this::grant);
+    }
+
+    public synchronized int getInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * Acquire the permit of a request, which must be released with {@link #release()} when the request completes.
+     * Cancelling the returned future gives up the waiting, the permit must not be released in that case.
+     *
+     * @return the future that completes when the request can be sent.
+     */
+    public synchronized CompletableFuture<Void> acquire() {
+        if (isAvailable()) {
+            inProgress++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * Release the permit of a completed request, the permit is passed on to the first waiting request.
+     */
+    public void release() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            waiter = waiters.poll();
+            if (waiter == null || maxConcurrency > 0 && inProgress > maxConcurrency) {
+                // The limit has been lowered, the permit is dropped.
+                if (waiter != null) {
+                    waiters.addFirst(waiter);
+                }
+                inProgress--;
+                return;
+            }
+        }
+        grant(waiter);
+    }
+
+    private boolean isAvailable() {
+        return maxConcurrency <= 0 || inProgress < maxConcurrency;
+    }
+
+    private void grant(CompletableFuture<Void> waiter) {
+        // The waiter is completed outside the lock, as it runs the request.
+        if (!waiter.complete(null)) {
+            // The waiting was cancelled, pass the permit on.
+            release();
+        }
+    }
+}
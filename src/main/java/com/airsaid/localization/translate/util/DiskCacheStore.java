@@ -0,0 +1,477 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A key-value store of strings backed by an append-only log file.
+ * <p>
+ * Every put appends a record to the end of the file, and an in-memory index maps each key to the
+ * offset of its latest record, so the store can hold a large number of entries while only the
+ * recently used values are kept in memory. The index is built lazily on the first access. When the
+ * outdated records take up more space than the live ones, the file is compacted in the background.
+ * <p>
+ * Record format: {@code [crc32: int][keyLength: int][valueLength: int][key: UTF-8][value: UTF-8]},
+ * the file is truncated at the first incomplete or corrupted record when it is loaded.
+ *
+ * @author airsaid
+ */
+public class DiskCacheStore implements Closeable {
+
+    private static final Logger LOG = Logger.getInstance(DiskCacheStore.class);
+
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    private static final long MIN_COMPACT_GARBAGE_BYTES = 1024 * 1024;
+
+    private final Path file;
+    private final Executor compactExecutor;
+    private final LRUCache<String, String> hotCache;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean isCompacting = new AtomicBoolean();
+
+    private long minCompactGarbageBytes = MIN_COMPACT_GARBAGE_BYTES;
+    private FileChannel channel;
+    private Map<String, Long> index;
+    private long fileSize;
+    private long liveBytes;
+    // Increased when the store is cleared, so that a compaction started before is discarded.
+    private long generation;
+
+    /**
+     * @param file            the log file, which is created on the first put if it does not exist.
+     * @param hotCacheSize    the maximum number of values kept in memory.
+     * @param compactExecutor the executor that compacts the file in the background.
+     */
+    public DiskCacheStore(@NotNull Path file, int hotCacheSize, @NotNull Executor compactExecutor) {
+        this.file = file;
+        this.compactExecutor = compactExecutor;
+        this.hotCache = new LRUCache<>(hotCacheSize, 16);
+    }
+
+    @Nullable
+    public String get(@NotNull String key) {
+        String value = hotCache.get(key);
+        if (value != null) {
+            return value;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            // The store is closed, or failed to reopen after compaction.
+            if (index == null) {
+                return null;
+            }
+            Long offset = index.get(key);
+            if (offset == null) {
+                return null;
+            }
+            value = readRecord(channel, offset).value;
+            // Fill the hot cache before a put of the same key can replace the value.
+            hotCache.put(key, value);
+            return value;
+        } catch (IOException e) {
+            LOG.warn("Failed to read the cache: " + file, e);
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(@NotNull String key, @NotNull String value) {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            ByteBuffer record = encodeRecord(key, value);
+            int recordSize = record.remaining();
+            openChannel();
+            long offset = fileSize;
+            writeFully(channel, record, offset);
+            fileSize += recordSize;
+            Long oldOffset = index.put(key, offset);
+            if (oldOffset != null) {
+                liveBytes -= readRecordSize(channel, oldOffset);
+            }
+            liveBytes += recordSize;
+            hotCache.put(key, value);
+        } catch (IOException e) {
+            LOG.warn("Failed to write the cache: " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index != null ? index.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.clear();
+            }
+            hotCache.clear();
+            generation++;
+            fileSize = 0;
+            liveBytes = 0;
+            if (channel != null) {
+                channel.truncate(0);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to clear the cache: " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Set the maximum number of values kept in memory.
+     */
+    public void setHotCacheSize(int hotCacheSize) {
+        hotCache.setMaxCapacity(hotCacheSize);
+    }
+
+    @NotNull
+    public LRUCache<String, String> getHotCache() {
+        return hotCache;
+    }
+
+    public long getFileSize() {
+        lock.readLock().lock();
+        try {
+            return fileSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void setMinCompactGarbageBytes(long minCompactGarbageBytes) {
+        this.minCompactGarbageBytes = minCompactGarbageBytes;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            index = null;
+            hotCache.clear();
+        } catch (IOException e) {
+            LOG.warn("Failed to close the cache: " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (index != null) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        index = new HashMap<>();
+        fileSize = 0;
+        liveBytes = 0;
+        if (!Files.exists(file)) return;
+        try {
+            openChannel();
+            long size = channel.size();
+            long offset = 0;
+            while (offset < size) {
+                Record record = readRecord(channel, offset);
+                if (record == null) break;
+                Long oldOffset = index.put(record.key, offset);
+                if (oldOffset != null) {
+                    liveBytes -= readRecordSize(channel, oldOffset);
+                }
+                liveBytes += record.size;
+                offset += record.size;
+            }
+            if (offset < size) {
+                LOG.warn("Truncate the corrupted cache at " + offset + ": " + file);
+                channel.truncate(offset);
+            }
+            fileSize = offset;
+            LOG.info("Loaded " + index.size() + " caches from " + file);
+        } catch (IOException e) {
+            LOG.warn("Failed to load the cache: " + file, e);
+        }
+    }
+
+    private void openChannel() throws IOException {
+        if (channel != null) return;
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void compactIfNeeded() {
+        lock.readLock().lock();
+        try {
+            long garbageBytes = fileSize - liveBytes;
+            if (garbageBytes < minCompactGarbageBytes || garbageBytes < liveBytes) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (isCompacting.compareAndSet(false, true)) {
+            compactExecutor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    isCompacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rewrite the live records to a new file. The records are copied without blocking the readers and
+     * writers, then the records appended during the copy are copied and the files are swapped.
+     */
+    void compact() {
+        Map<String, Long> snapshot;
+        long snapshotSize;
+        long snapshotGeneration;
+        FileChannel source;
+        lock.readLock().lock();
+        try {
+            if (index == null || channel == null) return;
+            snapshot = new HashMap<>(index);
+            snapshotSize = fileSize;
+            snapshotGeneration = generation;
+            source = channel;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path compactFile = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compactFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Map<String, Long> newIndex = new HashMap<>();
+            long newSize = 0;
+            for (Long offset : snapshot.values()) {
+                newSize += copyRecord(source, offset, target, newSize, newIndex);
+            }
+            long newLiveBytes = newSize;
+
+            lock.writeLock().lock();
+            try {
+                if (channel != source || generation != snapshotGeneration) return;
+                // Copy the records that were appended during the compaction.
+                long offset = snapshotSize;
+                while (offset < fileSize) {
+                    Record record = readRecord(channel, offset);
+                    if (record == null) {
+                        throw new IOException("Corrupted record at " + offset);
+                    }
+                    Long oldOffset = newIndex.get(record.key);
+                    if (oldOffset != null) {
+                        newLiveBytes -= readRecordSize(target, oldOffset);
+                    }
+                    writeFully(target, encodeRecord(record.key, record.value), newSize);
+                    newIndex.put(record.key, newSize);
+                    newSize += record.size;
+                    newLiveBytes += record.size;
+                    offset += record.size;
+                }
+                target.force(false);
+                channel.close();
+                channel = null;
+                try {
+                    replaceFile(compactFile, file);
+                } finally {
+                    // Reopen the file whether it is replaced or not, the original file is kept if the move fails.
+                    reopenChannel();
+                }
+                LOG.info("Compacted the cache from " + fileSize + " to " + newSize + " bytes: " + file);
+                index = newIndex;
+                fileSize = newSize;
+                liveBytes = newLiveBytes;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to compact the cache: " + file, e);
+        } finally {
+            try {
+                Files.deleteIfExists(compactFile);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Replace the log file with the compacted file.
+     */
+    void replaceFile(@NotNull Path source, @NotNull Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Open the log file again after the compaction. If it can not be opened, the index is dropped,
+     * so that the next access loads the file again instead of using the closed channel.
+     */
+    private void reopenChannel() throws IOException {
+        try {
+            openChannel();
+        } catch (IOException e) {
+            index = null;
+            throw e;
+        }
+    }
+
+    private static int copyRecord(@NotNull FileChannel source, long sourceOffset,
+                                  @NotNull FileChannel target, long targetOffset,
+                                  @NotNull Map<String, Long> targetIndex) throws IOException {
+        Record record = readRecord(source, sourceOffset);
+        if (record == null) {
+            throw new IOException("Corrupted record at " + sourceOffset);
+        }
+        writeFully(target, encodeRecord(record.key, record.value), targetOffset);
+        targetIndex.put(record.key, targetOffset);
+        return record.size;
+    }
+
+    @NotNull
+    private static ByteBuffer encodeRecord(@NotNull String key, @NotNull String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + valueBytes.length);
+        buffer.putInt(0);
+        buffer.putInt(keyBytes.length);
+        buffer.putInt(valueBytes.length);
+        buffer.put(keyBytes);
+        buffer.put(valueBytes);
+        buffer.putInt(0, (int) checksum(buffer.array()));
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read the record at the offset.
+     *
+     * @return the record, or null if the record is incomplete or corrupted.
+     */
+    @Nullable
+    private static Record readRecord(@NotNull FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header, offset)) return null;
+        int crc = header.getInt(0);
+        int keyLength = header.getInt(4);
+        int valueLength = header.getInt(8);
+        if (keyLength < 0 || valueLength < 0 || (long) keyLength + valueLength > MAX_RECORD_SIZE) return null;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + keyLength + valueLength);
+        if (!readFully(channel, buffer, offset)) return null;
+        byte[] bytes = buffer.array();
+        if ((int) checksum(bytes) != crc) return null;
+        String key = new String(bytes, HEADER_SIZE, keyLength, StandardCharsets.UTF_8);
+        String value = new String(bytes, HEADER_SIZE + keyLength, valueLength, StandardCharsets.UTF_8);
+        return new Record(key, value, bytes.length);
+    }
+
+    private static int readRecordSize(@NotNull FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header, offset)) {
+            throw new IOException("Incomplete record at " + offset);
+        }
+        return HEADER_SIZE + header.getInt(4) + header.getInt(8);
+    }
+
+    private static long checksum(byte[] record) {
+        CRC32 crc32 = new CRC32();
+        // The checksum covers everything after the checksum itself.
+        crc32.update(record, 4, record.length - 4);
+        return crc32.getValue();
+    }
+
+    private static boolean readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset + buffer.position());
+            if (read < 0) return false;
+        }
+        return true;
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private static class Record {
+        private final String key;
+        private final String value;
+        private final int size;
+
+        Record(String key, String value, int size) {
+            this.key = key;
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
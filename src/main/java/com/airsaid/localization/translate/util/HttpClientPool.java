@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The shared HTTP clients of the translators, one client per host.
+ * <p>
+ * A client keeps the connections to its host alive and reuses them for the following requests, and
+ * multiplexes the concurrent requests over one connection if the host supports HTTP/2, so the requests
+ * to the same host do not pay the DNS, TCP and TLS setup again. The clients use the proxy and the
+ * authenticator of the IDE.
+ *
+ * @author airsaid
+ */
+public class HttpClientPool {
+
+    private static final Logger LOG = Logger.getInstance(HttpClientPool.class);
+
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_READ_TIMEOUT_SECONDS = 60;
+    // Log the connection statistics every this number of requests.
+    private static final int LOG_STATISTICS_INTERVAL = 100;
+
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder handshakeCount = new LongAdder();
+
+    private volatile Duration connectTimeout = Duration.ofSeconds(DEFAULT_CONNECT_TIMEOUT_SECONDS);
+    private volatile Duration readTimeout = Duration.ofSeconds(DEFAULT_READ_TIMEOUT_SECONDS);
+    private volatile boolean isEnableHttp2 = true;
+
+    public static HttpClientPool getInstance() {
+        return HttpClientPoolHolder.sInstance;
+    }
+
+    /**
+     * Configure the clients, the existing clients are replaced so that the new settings take effect.
+     *
+     * @param connectTimeoutSeconds the timeout of establishing a connection.
+     * @param readTimeoutSeconds    the timeout of waiting for a response.
+     * @param isEnableHttp2         whether to use HTTP/2 when the host supports it.
+     */
+    public void configure(int connectTimeoutSeconds, int readTimeoutSeconds, boolean isEnableHttp2) {
+        LOG.info(String.format("configure connectTimeout: %ds, readTimeout: %ds, isEnableHttp2: %s",
+                connectTimeoutSeconds, readTimeoutSeconds, isEnableHttp2));
+        this.connectTimeout = Duration.ofSeconds(Math.max(1, connectTimeoutSeconds));
+        this.readTimeout = Duration.ofSeconds(Math.max(1, readTimeoutSeconds));
+        this.isEnableHttp2 = isEnableHttp2;
+        clients.clear();
+    }
+
+    /**
+     * Returns the timeout of waiting for a response, which should be set to the requests.
+     */
+    @NotNull
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Send the request with the client of its host.
+     */
+    @NotNull
+    public <T> HttpResponse<T> send(@NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HttpResponse<T> response = getClient(request.uri()).send(request, bodyHandler);
+        onResponse(response);
+        return response;
+    }
+
+    /**
+     * Send the request with the client of its host without blocking, the returned future
+     * completes on a thread of the client when the response is received.
+     */
+    @NotNull
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(@NotNull HttpRequest request,
+                                                            @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        return getClient(request.uri()).sendAsync(request, bodyHandler)
+                .thenApply(response -> {
+                    onResponse(response);
+                    return response;
+                });
+    }
+
+    @NotNull
+    public HttpClient getClient(@NotNull URI uri) {
+        String host = uri.getScheme() + "://" + uri.getAuthority();
+        return clients.computeIfAbsent(host, key -> createClient());
+    }
+
+    /**
+     * Returns the number of responses received by the clients.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * Returns the number of TLS sessions established by the clients, the requests that
+     * reused a session did not pay the handshake.
+     */
+    public long getHandshakeCount() {
+        return handshakeCount.sum();
+    }
+
+    void onResponse(@NotNull HttpResponse<?> response) {
+        requestCount.increment();
+        Optional<SSLSession> sslSession = response.sslSession();
+        if (sslSession.isPresent()) {
+            byte[] id = sslSession.get().getId();
+            String sessionId = response.uri().getAuthority() + "_" + (id != null && id.length > 0
+                    ? Base64.getEncoder().encodeToString(id) : String.valueOf(System.identityHashCode(sslSession.get())));
+            if (sessionIds.add(sessionId)) {
+                handshakeCount.increment();
+            }
+        }
+        long requests = requestCount.sum();
+        if (requests % LOG_STATISTICS_INTERVAL == 0) {
+            long handshakes = handshakeCount.sum();
+            LOG.info(String.format("HTTP requests: %d, TLS handshakes: %d, saved handshakes: %d",
+                    requests, handshakes, requests - handshakes));
+        }
+    }
+
+    @NotNull
+    private HttpClient createClient() {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(isEnableHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        ProxySelector proxySelector = ProxySelector.getDefault();
+        if (proxySelector != null) {
+            builder.proxy(proxySelector);
+        }
+        Authenticator authenticator = Authenticator.getDefault();
+        if (authenticator != null) {
+            builder.authenticator(authenticator);
+        }
+        return builder.build();
+    }
+
+    private static class HttpClientPoolHolder {
+        private static final HttpClientPool sInstance = new HttpClientPool();
+    }
+}
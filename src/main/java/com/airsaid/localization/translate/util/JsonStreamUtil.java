@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Extract the values of a few fields from a JSON stream, without reading the whole
+ * response into a string or binding it to an object graph.
+ * <p>
+ * A field is addressed by its path from the root: the names of the object members are joined with
+ * {@code .}, and {@code []} stands for every element of an array, e.g. {@code data.translations[].text},
+ * or {@code [].translations[].text} for an array at the root. The values that are not on the path
+ * of any field are skipped without being parsed into strings.
+ *
+ * @author airsaid
+ */
+public class JsonStreamUtil {
+
+    private JsonStreamUtil() {
+        throw new AssertionError("No com.airsaid.localization.translate.util.JsonStreamUtil instances for you!");
+    }
+
+    /**
+     * Read the JSON stream and pass the values of the fields to their consumers, in the order they appear.
+     * The values that are {@code null} are passed as empty strings, numbers and booleans as their literals.
+     *
+     * @param reader    the JSON stream, which is not closed.
+     * @param consumers the consumers of the values, keyed by the paths of the fields.
+     */
+    public static void read(@NotNull Reader reader, @NotNull Map<String, Consumer<String>> consumers) throws IOException {
+        readValue(new JsonReader(reader), "", consumers);
+    }
+
+    /**
+     * Read the JSON stream and returns the values of the field, in the order they appear.
+     *
+     * @param reader the JSON stream, which is not closed.
+     * @param path   the path of the field.
+     */
+    @NotNull
+    public static List<String> readStrings(@NotNull Reader reader, @NotNull String path) throws IOException {
+        List<String> values = new ArrayList<>();
+        read(reader, Map.of(path, values::add));
+        return values;
+    }
+
+    private static void readValue(@NotNull JsonReader reader, @NotNull String path,
+                                  @NotNull Map<String, Consumer<String>> consumers) throws IOException {
+        JsonToken token = reader.peek();
+        Consumer<String> consumer = consumers.get(path);
+        if (consumer != null && token != JsonToken.BEGIN_OBJECT && token != JsonToken.BEGIN_ARRAY) {
+            switch (token) {
+                case NULL:
+                    reader.nextNull();
+                    consumer.accept("");
+                    break;
+                case BOOLEAN:
+                    consumer.accept(String.valueOf(reader.nextBoolean()));
+                    break;
+                default:
+                    consumer.accept(reader.nextString());
+                    break;
+            }
+            return;
+        }
+        if (!isOnPath(path, consumers)) {
+            reader.skipValue();
+            return;
+        }
+        switch (token) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    readValue(reader, path.isEmpty() ? name : path + "." + name, consumers);
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                String elementPath = path + "[]";
+                while (reader.hasNext()) {
+                    readValue(reader, elementPath, consumers);
+                }
+                reader.endArray();
+                break;
+            default:
+                reader.skipValue();
+                break;
+        }
+    }
+
+    private static boolean isOnPath(@NotNull String path, @NotNull Map<String, Consumer<String>> consumers) {
+        if (path.isEmpty()) return true;
+        for (String fieldPath : consumers.keySet()) {
+            if (fieldPath.startsWith(path) && fieldPath.length() > path.length()) {
+                char next = fieldPath.charAt(path.length());
+                if (next == '.' || next == '[') return true;
+            }
+        }
+        return false;
+    }
+}
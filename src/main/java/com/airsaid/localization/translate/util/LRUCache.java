@@ -17,49 +17,85 @@
 
 package com.airsaid.localization.translate.util;
 
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
 /**
+ * A thread-safe LRU cache with O(1) get, put and eviction.
+ * <p>
+ * The entries are split into segments by the hash of the keys, each segment has its own lock, its own
+ * doubly linked list in access order and an equal share of the capacity, so the concurrent callers
+ * that access different segments do not block each other. The least recently used entry is evicted
+ * within its segment, with a single segment (the default) the cache is an exact LRU cache.
+ *
  * @author airsaid
  */
 public class LRUCache<K, V> {
 
-    private final Map<K, Node<K, V>> caches;
-    private Node<K, V> head;
-    private Node<K, V> tail;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
-    private int maxCapacity;
+    private volatile int maxCapacity;
 
     public LRUCache(int initialCapacity) {
-        maxCapacity = initialCapacity;
+        this(initialCapacity, 1);
+    }
+
+    /**
+     * @param initialCapacity  the maximum number of entries.
+     * @param concurrencyLevel the estimated number of concurrent callers, which is rounded up to
+     *                         a power of two as the number of segments.
+     */
+    @SuppressWarnings("unchecked")
+    public LRUCache(int initialCapacity, int concurrencyLevel) {
         if (initialCapacity <= 0) {
             throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
         }
-        caches = new LinkedHashMap<>(initialCapacity);
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Illegal Concurrency Level: " + concurrencyLevel);
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount < MAX_SEGMENTS) {
+            segmentCount <<= 1;
+        }
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        setMaxCapacity(initialCapacity);
     }
 
     public void put(K key, V value) {
-        while (isFull()) {
-            removeTailNode();
-        }
-        Node<K, V> newNode = new Node<>(key, value);
-        caches.put(key, newNode);
-        moveToHeadNode(newNode);
+        evictionCount.add(segmentFor(key).put(key, value));
     }
 
     public V get(K key) {
-        if (caches.containsKey(key)) {
-            Node<K, V> newHead = caches.get(key);
-            moveToHeadNode(newHead);
-            return newHead.value;
+        V value = segmentFor(key).get(key);
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
         }
-        return null;
+        return value;
+    }
+
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
     }
 
     public int size() {
-        return caches.size();
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
     }
 
     public boolean isFull() {
@@ -70,50 +106,150 @@ public class LRUCache<K, V> {
         return size() <= 0;
     }
 
+    /**
+     * Performs the given action for each entry, the entries of a segment are iterated
+     * from the least recently used to the most recently used.
+     */
     public void forEach(BiConsumer<K, V> consumer) {
-        for (Map.Entry<K, Node<K, V>> entry : caches.entrySet()) {
-            K key = entry.getKey();
-            Node<K, V> value = entry.getValue();
-            consumer.accept(key, value.value);
+        for (Segment<K, V> segment : segments) {
+            segment.forEach(consumer);
         }
     }
 
     public void clear() {
-        caches.clear();
-        head = null;
-        tail = null;
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
     }
 
-    private void moveToHeadNode(Node<K, V> node) {
-        if (head == null) {
-            head = node;
-            tail = node;
-            return;
+    /**
+     * Set the maximum number of entries, the least recently used entries are evicted if the cache exceeds it.
+     */
+    public synchronized void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        int segmentCount = segments.length;
+        for (int i = 0; i < segmentCount; i++) {
+            // Distribute the capacity evenly, each segment can hold at least one entry.
+            int capacity = maxCapacity / segmentCount + (i < maxCapacity % segmentCount ? 1 : 0);
+            evictionCount.add(segments[i].setMaxCapacity(Math.max(1, capacity)));
         }
+    }
 
-        node.next = head;
-        head.prev = node;
-        head = node;
+    public long getHitCount() {
+        return hitCount.sum();
     }
 
-    private void removeTailNode() {
-        if (tail == null) return;
+    public long getMissCount() {
+        return missCount.sum();
+    }
 
-        caches.remove(tail.key);
-        Node<K, V> prev = tail.prev;
-        if (prev != null) {
-            prev.next = null;
-            tail.prev = null;
-        }
-        tail = prev;
+    public long getEvictionCount() {
+        return evictionCount.sum();
     }
 
-    public int getMaxCapacity() {
-        return maxCapacity;
+    private Segment<K, V> segmentFor(K key) {
+        int hash = Objects.hashCode(key);
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
     }
 
-    public void setMaxCapacity(int maxCapacity) {
-        this.maxCapacity = maxCapacity;
+    private static class Segment<K, V> {
+        private final Map<K, Node<K, V>> caches = new HashMap<>();
+        // The sentinel of the doubly linked list, its next node is the most recently used one,
+        // and its previous node is the least recently used one.
+        private final Node<K, V> head = new Node<>(null, null);
+        private int maxCapacity;
+        private volatile int size;
+
+        Segment() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        /**
+         * @return the number of evicted entries.
+         */
+        synchronized int put(K key, V value) {
+            Node<K, V> node = caches.get(key);
+            if (node != null) {
+                node.value = value;
+                unlink(node);
+                linkFirst(node);
+                return 0;
+            }
+            node = new Node<>(key, value);
+            caches.put(key, node);
+            linkFirst(node);
+            return evict();
+        }
+
+        synchronized V get(K key) {
+            Node<K, V> node = caches.get(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            linkFirst(node);
+            return node.value;
+        }
+
+        synchronized V remove(K key) {
+            Node<K, V> node = caches.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            size = caches.size();
+            return node.value;
+        }
+
+        synchronized void forEach(BiConsumer<K, V> consumer) {
+            for (Node<K, V> node = head.prev; node != head; node = node.prev) {
+                consumer.accept(node.key, node.value);
+            }
+        }
+
+        synchronized void clear() {
+            caches.clear();
+            head.prev = head;
+            head.next = head;
+            size = 0;
+        }
+
+        synchronized int setMaxCapacity(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            return evict();
+        }
+
+        private int evict() {
+            int evicted = 0;
+            while (caches.size() > maxCapacity) {
+                Node<K, V> eldest = head.prev;
+                unlink(eldest);
+                caches.remove(eldest.key);
+                evicted++;
+            }
+            size = caches.size();
+            return evicted;
+        }
+
+        private void linkFirst(Node<K, V> node) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+        }
+
+        private void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
     }
 
     private static class Node<K, V> {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter that limits the number of requests per second and
+ * the number of characters per minute, the requests are only delayed when the budget is exhausted.
+ * <p>
+ * The limiter is thread-safe, concurrent callers reserve their budget in turn and then wait
+ * outside the lock, so the overall rate is respected regardless of the number of callers.
+ * <p>
+ * The request rate adapts to the rate limit responses of the engine (AIMD): it is halved and all
+ * requests are paused when the engine rejects a request, and it increases additively with each
+ * successful request until the configured rate is reached again.
+ *
+ * @author airsaid
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private static final double MIN_REQUESTS_PER_SECOND = 0.1;
+    // The rate to start from when the engine rejects a request and no rate is configured.
+    private static final double INITIAL_THROTTLED_REQUESTS_PER_SECOND = 1;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double INCREASE_STEP = 0.1;
+
+    private final LongSupplier nanoClock;
+
+    private double maxRequestsPerSecond;
+    private double requestsPerSecond;
+    private int burst;
+    private int charactersPerMinute;
+
+    private double requestTokens;
+    private double characterTokens;
+    private long lastRefillNanos;
+    private long pauseUntilNanos;
+
+    /**
+     * @param requestsPerSecond   the number of requests per second, no limit if less than or equal to 0.
+     * @param burst               the maximum number of requests that can be sent without waiting.
+     * @param charactersPerMinute the number of characters per minute, no limit if less than or equal to 0.
+     */
+    public RateLimiter(double requestsPerSecond, int burst, int charactersPerMinute) {
+        this(requestsPerSecond, burst, charactersPerMinute, System::nanoTime);
+    }
+
+    RateLimiter(double requestsPerSecond, int burst, int charactersPerMinute, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        setRate(requestsPerSecond, burst, charactersPerMinute);
+        this.requestTokens = this.burst;
+        this.characterTokens = charactersPerMinute;
+    }
+
+    public synchronized void setRate(double requestsPerSecond, int burst, int charactersPerMinute) {
+        refill();
+        this.maxRequestsPerSecond = requestsPerSecond;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.charactersPerMinute = charactersPerMinute;
+        requestTokens = Math.min(requestTokens, this.burst);
+        characterTokens = Math.min(characterTokens, charactersPerMinute);
+    }
+
+    public synchronized double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Called when the engine rejects a request because the rate limit is exceeded, decreases
+     * the request rate and pauses all requests for the given time.
+     *
+     * @param pauseNanos the time in nanoseconds to pause all requests.
+     */
+    public synchronized void onRateLimited(long pauseNanos) {
+        refill();
+        double rate = requestsPerSecond > 0 ? requestsPerSecond : INITIAL_THROTTLED_REQUESTS_PER_SECOND / DECREASE_FACTOR;
+        requestsPerSecond = Math.max(MIN_REQUESTS_PER_SECOND, rate * DECREASE_FACTOR);
+        // Drop the burst, so that the requests after the pause are spaced out.
+        requestTokens = Math.min(requestTokens, 0);
+        pauseUntilNanos = Math.max(pauseUntilNanos, lastRefillNanos + pauseNanos);
+    }
+
+    /**
+     * Called when the engine accepts a request, increases the request rate until the configured rate is reached.
+     */
+    public synchronized void onSuccess() {
+        if (requestsPerSecond <= 0) return;
+        if (maxRequestsPerSecond > 0) {
+            requestsPerSecond = Math.min(maxRequestsPerSecond, requestsPerSecond + INCREASE_STEP);
+        } else {
+            requestsPerSecond += INCREASE_STEP;
+        }
+    }
+
+    /**
+     * Acquire the budget of a request, blocks until the request can be sent.
+     *
+     * @param characters the number of characters of the request.
+     */
+    public void acquire(int characters) {
+        long waitNanos = reserve(characters);
+        if (waitNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reserve the budget of a request without blocking, the caller is responsible for
+     * delaying the request by the returned time, e.g. with a scheduled executor.
+     *
+     * @param characters the number of characters of the request.
+     * @return the time in nanoseconds to wait before the request can be sent.
+     */
+    public synchronized long reserve(int characters) {
+        refill();
+        long waitNanos = 0;
+        if (requestsPerSecond > 0) {
+            requestTokens -= 1;
+            if (requestTokens < 0) {
+                waitNanos = (long) (-requestTokens / requestsPerSecond * NANOS_PER_SECOND);
+            }
+        }
+        if (charactersPerMinute > 0) {
+            characterTokens -= characters;
+            if (characterTokens < 0) {
+                waitNanos = Math.max(waitNanos, (long) (-characterTokens / charactersPerMinute * NANOS_PER_MINUTE));
+            }
+        }
+        return waitNanos + Math.max(0, pauseUntilNanos - lastRefillNanos);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        // No budget is accumulated while the requests are paused.
+        long elapsedNanos = now - Math.max(lastRefillNanos, pauseUntilNanos);
+        lastRefillNanos = now;
+        if (elapsedNanos <= 0) return;
+        if (requestsPerSecond > 0) {
+            requestTokens = Math.min(burst, requestTokens + (double) elapsedNanos * requestsPerSecond / NANOS_PER_SECOND);
+        }
+        if (charactersPerMinute > 0) {
+            characterTokens = Math.min(charactersPerMinute, characterTokens + (double) elapsedNanos * charactersPerMinute / NANOS_PER_MINUTE);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.translate.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Read a stream of server-sent events, as the {@code text/event-stream} responses of the streaming APIs.
+ * Only the data of the events is used, the other fields and the comments are ignored.
+ *
+ * @author airsaid
+ */
+public class ServerSentEvents {
+
+    private ServerSentEvents() {
+        throw new AssertionError("No com.airsaid.localization.translate.util.ServerSentEvents instances for you!");
+    }
+
+    /**
+     * Read the events as they arrive and pass their data to the consumer.
+     *
+     * @param reader       the event stream, which is not closed.
+     * @param dataConsumer the consumer of the data of each event, returns false to stop reading.
+     */
+    public static void read(@NotNull Reader reader, @NotNull DataConsumer dataConsumer) throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        StringBuilder data = null;
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            if (line.isEmpty()) {
+                // A blank line dispatches the event.
+                if (data != null) {
+                    if (!dataConsumer.accept(data.toString())) return;
+                    data = null;
+                }
+                continue;
+            }
+            if (!line.startsWith("data:")) continue;
+            String value = line.substring("data:".length());
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            if (data == null) {
+                data = new StringBuilder(value);
+            } else {
+                data.append('\n').append(value);
+            }
+        }
+        if (data != null) {
+            dataConsumer.accept(data.toString());
+        }
+    }
+
+    @FunctionalInterface
+    public interface DataConsumer {
+        /**
+         * @param data the data of an event, the lines of multi-line data are joined with line feeds.
+         * @return true to continue reading, false to stop.
+         */
+        boolean accept(@NotNull String data) throws IOException;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.values;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A child of the {@code resources} tag of a values file. It is either an entry, e.g. a {@code string},
+ * {@code plurals} or {@code string-array} tag, or the whitespace and comments between the entries.
+ * <p>
+ * The content of an entry is kept as a flat list of segments, the texts of the entry are its
+ * {@link ValueSegment.Kind#TEXT} segments, so the nodes hold the strings of the file instead of a tree.
+ *
+ * @author airsaid
+ */
+public final class ValueNode {
+
+    private final String type;
+    private final String name;
+    private final boolean translatable;
+    private final String startTag;
+    private final String endTag;
+    private final List<ValueSegment> segments;
+
+    ValueNode(@Nullable String type, @Nullable String name, boolean translatable,
+              @NotNull String startTag, @NotNull String endTag, @NotNull List<ValueSegment> segments) {
+        this.type = type;
+        this.name = name;
+        this.translatable = translatable;
+        this.startTag = startTag;
+        this.endTag = endTag;
+        this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+    }
+
+    /**
+     * Returns the node of the whitespace or comments between the entries.
+     */
+    @NotNull
+    static ValueNode markup(@NotNull String xml) {
+        return new ValueNode(null, null, false, "", "", List.of(ValueSegment.markup(xml)));
+    }
+
+    /**
+     * Returns the tag name of the entry, e.g. {@code string}, or null if this node is not an entry.
+     */
+    @Nullable
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the value of the {@code name} attribute of the entry.
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns false if the entry is marked with {@code translatable="false"} or this node is not an entry.
+     */
+    public boolean isTranslatable() {
+        return translatable;
+    }
+
+    public boolean isEntry() {
+        return type != null;
+    }
+
+    /**
+     * Returns the raw XML of the start tag of the entry, with its attributes.
+     */
+    @NotNull
+    public String getStartTag() {
+        return startTag;
+    }
+
+    /**
+     * Returns the raw XML of the end tag of the entry.
+     */
+    @NotNull
+    public String getEndTag() {
+        return endTag;
+    }
+
+    @NotNull
+    public List<ValueSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the values of the text segments, in the order of the segments.
+     */
+    @NotNull
+    public List<String> getTexts() {
+        List<String> texts = new ArrayList<>();
+        for (ValueSegment segment : segments) {
+            if (segment.isText()) {
+                texts.add(segment.getValue());
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Returns a copy of this node with its texts replaced, e.g. by their translations.
+     *
+     * @param texts the texts, in the order of {@link #getTexts()}.
+     * @return the copy of this node.
+     */
+    @NotNull
+    public ValueNode withTexts(@NotNull List<String> texts) {
+        List<ValueSegment> newSegments = new ArrayList<>(segments.size());
+        int index = 0;
+        for (ValueSegment segment : segments) {
+            if (segment.isText()) {
+                if (index >= texts.size()) {
+                    throw new IllegalArgumentException("Expected " + getTexts().size() + " texts, but got " + texts.size());
+                }
+                newSegments.add(ValueSegment.text(texts.get(index++)));
+            } else {
+                newSegments.add(segment);
+            }
+        }
+        return new ValueNode(type, name, translatable, startTag, endTag, newSegments);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueNode{" +
+                "type='" + type + '\'' +
+                ", name='" + name + '\'' +
+                ", translatable=" + translatable +
+                ", segments=" + segments +
+                '}';
+    }
+}
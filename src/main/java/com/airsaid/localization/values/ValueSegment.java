@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.values;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A part of the content of a {@link ValueNode}: a text to be translated, or the markup around the texts
+ * which is kept as it is.
+ *
+ * @author airsaid
+ */
+public final class ValueSegment {
+
+    public enum Kind {
+        /**
+         * A text to be translated, the value is the text with the XML entities decoded.
+         */
+        TEXT,
+        /**
+         * The markup that is not translated, e.g. the tags of the styled texts or the items of an array,
+         * the value is the raw XML.
+         */
+        MARKUP,
+        /**
+         * An {@code xliff:g} tag that marks a part of the text that must not be translated, the value is the raw XML.
+         */
+        PLACEHOLDER
+    }
+
+    private final Kind kind;
+    private final String value;
+
+    private ValueSegment(@NotNull Kind kind, @NotNull String value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    @NotNull
+    public static ValueSegment text(@NotNull String text) {
+        return new ValueSegment(Kind.TEXT, text);
+    }
+
+    @NotNull
+    public static ValueSegment markup(@NotNull String xml) {
+        return new ValueSegment(Kind.MARKUP, xml);
+    }
+
+    @NotNull
+    public static ValueSegment placeholder(@NotNull String xml) {
+        return new ValueSegment(Kind.PLACEHOLDER, xml);
+    }
+
+    @NotNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    @NotNull
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isText() {
+        return kind == Kind.TEXT;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ValueSegment that = (ValueSegment) o;
+        return kind == that.kind && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, value);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueSegment{" +
+                "kind=" + kind +
+                ", value='" + value + '\'' +
+                '}';
+    }
+}
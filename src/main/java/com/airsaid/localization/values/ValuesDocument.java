@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.values;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The PSI-free model of a values file, e.g. strings.xml: the {@code resources} tag and its children.
+ * It is immutable, so it can be shared by the threads that translate the file.
+ *
+ * @author airsaid
+ */
+public final class ValuesDocument {
+
+    private final String startTag;
+    private final String endTag;
+    private final List<ValueNode> nodes;
+
+    ValuesDocument(@NotNull String startTag, @NotNull String endTag, @NotNull List<ValueNode> nodes) {
+        this.startTag = startTag;
+        this.endTag = endTag;
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    /**
+     * Returns the raw XML of the start tag of {@code resources}, with its attributes.
+     */
+    @NotNull
+    public String getStartTag() {
+        return startTag;
+    }
+
+    @NotNull
+    public String getEndTag() {
+        return endTag;
+    }
+
+    /**
+     * Returns the children of {@code resources}, in the order of the file.
+     */
+    @NotNull
+    public List<ValueNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns a document with the same {@code resources} tag and the specified children.
+     */
+    @NotNull
+    public ValuesDocument withNodes(@NotNull List<ValueNode> nodes) {
+        return new ValuesDocument(startTag, endTag, nodes);
+    }
+
+    /**
+     * Returns the entries of the file, without the whitespace and comments between them.
+     */
+    @NotNull
+    public List<ValueNode> getEntries() {
+        List<ValueNode> entries = new ArrayList<>();
+        for (ValueNode node : nodes) {
+            if (node.isEntry()) {
+                entries.add(node);
+            }
+        }
+        return entries;
+    }
+}
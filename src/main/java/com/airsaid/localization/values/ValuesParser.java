@@ -0,0 +1,279 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.values;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parse a values file into a {@link ValuesDocument} with a streaming StAX parse, without building the PSI tree,
+ * so it does not need a read action and the memory used scales with the strings of the file.
+ * <p>
+ * The texts of the {@code string} tags, and of the items of the {@code plurals} and {@code string-array} tags
+ * are the {@link ValueSegment.Kind#TEXT} segments, the {@code xliff:g} tags are kept as placeholders.
+ * The content of the other tags is kept as it is.
+ *
+ * @author airsaid
+ */
+public class ValuesParser {
+
+    static final String TAG_STRING = "string";
+    static final String TAG_PLURALS = "plurals";
+    static final String TAG_STRING_ARRAY = "string-array";
+    static final String TAG_XLIFF = "xliff:g";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private ValuesParser() {
+        throw new AssertionError("No com.airsaid.localization.values.ValuesParser instances for you!");
+    }
+
+    @NotNull
+    public static ValuesDocument parse(@NotNull String xml) throws IOException {
+        return parse(new StringReader(xml));
+    }
+
+    /**
+     * Parse a values file from its fragments, which are usually split by a tolerant parser, e.g. the PSI, when the
+     * file is not well-formed. Each fragment is parsed on its own, and a fragment that is not well-formed is kept
+     * as markup, so only the broken entries are left untranslated.
+     *
+     * @param startTag  the start tag of the {@code resources} tag.
+     * @param endTag    the end tag of the {@code resources} tag.
+     * @param fragments the content of the {@code resources} tag, e.g. an entry or the whitespace between the entries.
+     * @return the document of the values file.
+     */
+    @NotNull
+    public static ValuesDocument parse(@NotNull String startTag, @NotNull String endTag, @NotNull List<String> fragments) {
+        List<ValueNode> nodes = new ArrayList<>();
+        for (String fragment : fragments) {
+            try {
+                nodes.addAll(parse("<resources>" + fragment + "</resources>").getNodes());
+            } catch (IOException e) {
+                nodes.add(ValueNode.markup(fragment));
+            }
+        }
+        return new ValuesDocument(startTag, endTag, nodes);
+    }
+
+    /**
+     * Parse the values file.
+     *
+     * @param reader the content of the values file.
+     * @return the document of the values file.
+     * @throws IOException if the content can not be read or is not well-formed.
+     */
+    @NotNull
+    public static ValuesDocument parse(@NotNull Reader reader) throws IOException {
+        XMLStreamReader xmlReader = null;
+        try {
+            xmlReader = FACTORY.createXMLStreamReader(reader);
+            return readDocument(xmlReader);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse the values file: " + e.getMessage(), e);
+        } finally {
+            if (xmlReader != null) {
+                try {
+                    xmlReader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Keep the prefixes of the names, e.g. "xliff:g", as they are written in the file.
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @NotNull
+    private static ValuesDocument readDocument(@NotNull XMLStreamReader reader) throws XMLStreamException {
+        // Skip the prolog of the file.
+        while (!reader.isStartElement() && reader.hasNext()) {
+            reader.next();
+        }
+        if (!reader.isStartElement()) {
+            throw new XMLStreamException("Missing the resources tag");
+        }
+        String startTag = startTag(reader);
+        String endTag = endTag(reader);
+        List<ValueNode> nodes = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return new ValuesDocument(startTag, endTag, nodes);
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                nodes.add(readEntry(reader));
+            } else {
+                String markup = markup(reader);
+                if (!markup.isEmpty()) {
+                    nodes.add(ValueNode.markup(markup));
+                }
+            }
+        }
+        throw new XMLStreamException("Missing the end of the resources tag");
+    }
+
+    @NotNull
+    private static ValueNode readEntry(@NotNull XMLStreamReader reader) throws XMLStreamException {
+        String type = name(reader);
+        String name = reader.getAttributeValue(null, "name");
+        String translatable = reader.getAttributeValue(null, "translatable");
+        String startTag = startTag(reader);
+        String endTag = endTag(reader);
+        boolean isString = TAG_STRING.equals(type);
+        boolean hasItems = TAG_PLURALS.equals(type) || TAG_STRING_ARRAY.equals(type);
+
+        List<ValueSegment> segments = new ArrayList<>();
+        int depth = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (TAG_XLIFF.equals(name(reader))) {
+                        segments.add(ValueSegment.placeholder(readElement(reader)));
+                    } else {
+                        segments.add(ValueSegment.markup(startTag(reader)));
+                        depth++;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth == 0) {
+                        return new ValueNode(type, name, Boolean.parseBoolean(translatable == null ? "true" : translatable),
+                                startTag, endTag, segments);
+                    }
+                    segments.add(ValueSegment.markup(endTag(reader)));
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    // The whitespace between the items is not a text of the entry.
+                    if (isString || (hasItems && depth > 0)) {
+                        segments.add(ValueSegment.text(reader.getText()));
+                    } else {
+                        segments.add(ValueSegment.markup(ValuesRenderer.escapeText(reader.getText())));
+                    }
+                    break;
+                default:
+                    String markup = markup(reader);
+                    if (!markup.isEmpty()) {
+                        segments.add(ValueSegment.markup(markup));
+                    }
+                    break;
+            }
+        }
+        throw new XMLStreamException("Missing the end of the " + type + " tag");
+    }
+
+    /**
+     * Read the element at the cursor and its content as raw XML.
+     */
+    @NotNull
+    private static String readElement(@NotNull XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder xml = new StringBuilder(startTag(reader));
+        int depth = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    xml.append(startTag(reader));
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    xml.append(endTag(reader));
+                    if (depth == 0) {
+                        return xml.toString();
+                    }
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    xml.append(ValuesRenderer.escapeText(reader.getText()));
+                    break;
+                default:
+                    xml.append(markup(reader));
+                    break;
+            }
+        }
+        throw new XMLStreamException("Missing the end of the " + name(reader) + " tag");
+    }
+
+    /**
+     * Returns the raw XML of the event at the cursor that is not an element.
+     */
+    @NotNull
+    private static String markup(@NotNull XMLStreamReader reader) {
+        switch (reader.getEventType()) {
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                return ValuesRenderer.escapeText(reader.getText());
+            case XMLStreamConstants.COMMENT:
+                return "<!--" + reader.getText() + "-->";
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                return "&" + reader.getLocalName() + ";";
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                String data = reader.getPIData();
+                return "<?" + reader.getPITarget() + (data == null || data.isEmpty() ? "" : " " + data) + "?>";
+            default:
+                return "";
+        }
+    }
+
+    @NotNull
+    private static String startTag(@NotNull XMLStreamReader reader) {
+        StringBuilder tag = new StringBuilder("<").append(name(reader));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            tag.append(' ');
+            if (prefix != null && !prefix.isEmpty()) {
+                tag.append(prefix).append(':');
+            }
+            tag.append(reader.getAttributeLocalName(i))
+                    .append("=\"").append(ValuesRenderer.escapeAttribute(reader.getAttributeValue(i))).append('"');
+        }
+        return tag.append('>').toString();
+    }
+
+    @NotNull
+    private static String endTag(@NotNull XMLStreamReader reader) {
+        return "</" + name(reader) + ">";
+    }
+
+    @NotNull
+    private static String name(@NotNull XMLStreamReader reader) {
+        // The parser is not namespace aware, the local name is the qualified name of the element.
+        return reader.getLocalName();
+    }
+}
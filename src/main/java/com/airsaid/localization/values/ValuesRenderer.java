@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 Airsaid. https://github.com/airsaid
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.airsaid.localization.values;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Render the {@link ValuesDocument} parsed by {@link ValuesParser} back to XML, optionally with the texts of
+ * the entries replaced by their translations.
+ *
+ * @author airsaid
+ */
+public class ValuesRenderer {
+
+    private ValuesRenderer() {
+        throw new AssertionError("No com.airsaid.localization.values.ValuesRenderer instances for you!");
+    }
+
+    /**
+     * Render the document as the {@code resources} tag and all of its children.
+     */
+    @NotNull
+    public static String render(@NotNull ValuesDocument document) {
+        StringWriter writer = new StringWriter();
+        try {
+            render(document, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    public static void render(@NotNull ValuesDocument document, @NotNull Writer writer) throws IOException {
+        writer.write(document.getStartTag());
+        for (ValueNode node : document.getNodes()) {
+            writer.write(render(node));
+        }
+        writer.write(document.getEndTag());
+    }
+
+    @NotNull
+    public static String render(@NotNull ValueNode node) {
+        return render(node, node.getTexts());
+    }
+
+    /**
+     * Render the node with its texts replaced.
+     *
+     * @param node  the node.
+     * @param texts the texts of the node, in the order of {@link ValueNode#getTexts()}.
+     * @return the XML of the node.
+     */
+    @NotNull
+    public static String render(@NotNull ValueNode node, @NotNull List<String> texts) {
+        StringBuilder xml = new StringBuilder(node.getStartTag());
+        int index = 0;
+        for (ValueSegment segment : node.getSegments()) {
+            if (segment.isText()) {
+                if (index >= texts.size()) {
+                    throw new IllegalArgumentException("Expected " + node.getTexts().size() + " texts, but got " + texts.size());
+                }
+                xml.append(escapeText(texts.get(index++)));
+            } else {
+                xml.append(segment.getValue());
+            }
+        }
+        return xml.append(node.getEndTag()).toString();
+    }
+
+    @NotNull
+    static String escapeText(@NotNull String text) {
+        return escape(text, false);
+    }
+
+    @NotNull
+    static String escapeAttribute(@NotNull String value) {
+        return escape(value, true);
+    }
+
+    @NotNull
+    private static String escape(@NotNull String text, boolean isAttribute) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String entity;
+            if (c == '&') {
+                entity = "&amp;";
+            } else if (c == '<') {
+                entity = "&lt;";
+            } else if (c == '>' && !isAttribute) {
+                entity = "&gt;";
+            } else if (c == '"' && isAttribute) {
+                entity = "&quot;";
+            } else {
+                entity = null;
+            }
+            if (entity != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (entity != null) {
+                    escaped.append(entity);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+}
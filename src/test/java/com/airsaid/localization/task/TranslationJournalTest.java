@@ -0,0 +1,77 @@
+package com.airsaid.localization.task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class TranslationJournalTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void testEmpty() {
+    TranslationJournal journal = new TranslationJournal(new File(tempDir, "journal.json"));
+    assertNull(journal.getTranslation("Hello"));
+    assertFalse(journal.isPending("hello"));
+  }
+
+  @Test
+  void testSaveAndLoad() {
+    File file = new File(tempDir, "journals/journal.json");
+    TranslationJournal journal = new TranslationJournal(file);
+    journal.putTranslation("Hello", "你好");
+    journal.setPendingNames(List.of("world"));
+    journal.save();
+
+    TranslationJournal loadedJournal = new TranslationJournal(file);
+    assertEquals("你好", loadedJournal.getTranslation("Hello"));
+    assertTrue(loadedJournal.isPending("world"));
+    assertFalse(loadedJournal.isPending("hello"));
+  }
+
+  @Test
+  void testSaveIfNeeded() {
+    File file = new File(tempDir, "journal.json");
+    TranslationJournal journal = new TranslationJournal(file, 0);
+    journal.saveIfNeeded();
+    assertFalse(file.exists());
+
+    journal.putTranslation("Hello", "你好");
+    journal.saveIfNeeded();
+    assertEquals("你好", new TranslationJournal(file).getTranslation("Hello"));
+
+    TranslationJournal throttledJournal = new TranslationJournal(file, 60_000);
+    throttledJournal.putTranslation("World", "世界");
+    throttledJournal.saveIfNeeded();
+    assertNull(new TranslationJournal(file).getTranslation("World"));
+  }
+
+  @Test
+  void testDelete() {
+    File file = new File(tempDir, "journal.json");
+    TranslationJournal journal = new TranslationJournal(file);
+    journal.putTranslation("Hello", "你好");
+    journal.save();
+    assertTrue(file.exists());
+
+    journal.delete();
+    assertFalse(file.exists());
+    assertNull(journal.getTranslation("Hello"));
+    assertNull(new TranslationJournal(file).getTranslation("Hello"));
+  }
+
+  @Test
+  void testCorruptedFile() throws Exception {
+    File file = new File(tempDir, "journal.json");
+    java.nio.file.Files.writeString(file.toPath(), "{corrupted");
+    assertNull(new TranslationJournal(file).getTranslation("Hello"));
+  }
+}
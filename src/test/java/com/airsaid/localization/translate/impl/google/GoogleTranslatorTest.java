@@ -0,0 +1,31 @@
+package com.airsaid.localization.translate.impl.google;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class GoogleTranslatorTest {
+
+  @Test
+  void testSplitSentences() {
+    List<String> results = GoogleTranslator.splitSentences(
+        List.of("Bonjour.\n", "Comment ça va ? ", "Bien.\n", "Au revoir"),
+        List.of("Hello.\n", "How are you? ", "Fine.\n", "Goodbye"), 3);
+    assertEquals(List.of("Bonjour.", "Comment ça va ? Bien.", "Au revoir"), results);
+  }
+
+  @Test
+  void testSplitMismatchedSentences() {
+    // The translation of a line is missing.
+    assertNull(GoogleTranslator.splitSentences(List.of("Bonjour\n"), List.of("Hello\n"), 2));
+    // The originals do not match the translations.
+    assertNull(GoogleTranslator.splitSentences(List.of("Bonjour\n", "Monde"), List.of("Hello\nWorld"), 2));
+    // A sentence spans multiple lines.
+    assertNull(GoogleTranslator.splitSentences(List.of("Bonjour Monde"), List.of("Hello\nWorld"), 2));
+  }
+}
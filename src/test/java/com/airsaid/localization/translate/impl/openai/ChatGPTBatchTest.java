@@ -0,0 +1,67 @@
+package com.airsaid.localization.translate.impl.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class ChatGPTBatchTest {
+
+  @Test
+  void testEstimateTokens() {
+    assertEquals(0, ChatGPTBatch.estimateTokens(""));
+    assertEquals(3, ChatGPTBatch.estimateTokens("Hello world!"));
+    assertEquals(4, ChatGPTBatch.estimateTokens("你好世界"));
+    assertEquals(3, ChatGPTBatch.estimateTokens("こんok"));
+  }
+
+  @Test
+  void testSplit() {
+    List<String> texts = List.of("aaaa", "bbbb", "cccc", "dddd");
+    // Every text takes 1 token plus the item overhead.
+    int itemTokens = 1 + ChatGPTBatch.ITEM_TOKENS;
+    List<List<String>> batches = ChatGPTBatch.split(texts, itemTokens * 2);
+    assertEquals(List.of(List.of("aaaa", "bbbb"), List.of("cccc", "dddd")), batches);
+  }
+
+  @Test
+  void testSplitOversizedText() {
+    List<List<String>> batches = ChatGPTBatch.split(List.of("a", "a".repeat(400), "b"), 20);
+    assertEquals(3, batches.size());
+    assertEquals(List.of("a".repeat(400)), batches.get(1));
+  }
+
+  @Test
+  void testToItems() {
+    assertEquals("[{\"id\":1,\"text\":\"Hello\"},{\"id\":2,\"text\":\"\\\"Quoted\\\"\"}]",
+        ChatGPTBatch.toItems(List.of("Hello", "\"Quoted\"")));
+  }
+
+  @Test
+  void testParseTranslations() {
+    String content = "{\"translations\":[{\"id\":1,\"fr\":\"Bonjour\",\"de\":\"Hallo\"},{\"id\":2,\"fr\":\"Monde\",\"de\":\"Welt\"}]}";
+    List<Map<String, String>> results = ChatGPTBatch.parseTranslations(content, List.of("fr", "de"), 2);
+    assertEquals(List.of(Map.of("fr", "Bonjour", "de", "Hallo"), Map.of("fr", "Monde", "de", "Welt")), results);
+  }
+
+  @Test
+  void testParseTranslationsInCodeBlock() {
+    String content = "```json\n{\"translations\":[{\"id\":\"1\",\"fr\":\"Bonjour\"}]}\n```";
+    assertEquals(List.of(Map.of("fr", "Bonjour")), ChatGPTBatch.parseTranslations(content, List.of("fr"), 1));
+  }
+
+  @Test
+  void testParseMismatchedTranslations() {
+    String twoItems = "{\"translations\":[{\"id\":1,\"fr\":\"Bonjour\"},{\"id\":2,\"fr\":\"Monde\"}]}";
+    assertNull(ChatGPTBatch.parseTranslations(twoItems, List.of("fr"), 3));
+    assertNull(ChatGPTBatch.parseTranslations(twoItems, List.of("fr", "de"), 2));
+    String swapped = "{\"translations\":[{\"id\":2,\"fr\":\"Monde\"},{\"id\":1,\"fr\":\"Bonjour\"}]}";
+    assertNull(ChatGPTBatch.parseTranslations(swapped, List.of("fr"), 2));
+    assertNull(ChatGPTBatch.parseTranslations("Sorry, I can't do that.", List.of("fr"), 2));
+  }
+}
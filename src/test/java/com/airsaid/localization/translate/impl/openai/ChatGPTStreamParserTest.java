@@ -0,0 +1,50 @@
+package com.airsaid.localization.translate.impl.openai;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class ChatGPTStreamParserTest {
+
+  @Test
+  void testItemsReportedWhenComplete() {
+    List<JsonObject> items = new ArrayList<>();
+    ChatGPTStreamParser parser = new ChatGPTStreamParser(items::add);
+    parser.append("{\"transl");
+    parser.append("ations\":[{\"id\":1,");
+    parser.append("\"fr\":\"Bon");
+    assertTrue(items.isEmpty());
+    parser.append("jour\"},{\"id\"");
+    assertEquals(1, items.size());
+    assertEquals("Bonjour", items.get(0).get("fr").getAsString());
+    parser.append(":2,\"fr\":\"Au revoir\"}]}");
+    assertEquals(2, items.size());
+    assertEquals(2, items.get(1).get("id").getAsInt());
+    assertEquals("{\"translations\":[{\"id\":1,\"fr\":\"Bonjour\"},{\"id\":2,\"fr\":\"Au revoir\"}]}", parser.getContent());
+  }
+
+  @Test
+  void testBracesInStrings() {
+    List<JsonObject> items = new ArrayList<>();
+    ChatGPTStreamParser parser = new ChatGPTStreamParser(items::add);
+    parser.append("{\"translations\":[{\"id\":1,\"fr\":\"{count} \\\"}\\\" [x]\"}");
+    assertEquals(1, items.size());
+    assertEquals("{count} \"}\" [x]", items.get(0).get("fr").getAsString());
+  }
+
+  @Test
+  void testCodeBlock() {
+    List<JsonObject> items = new ArrayList<>();
+    ChatGPTStreamParser parser = new ChatGPTStreamParser(items::add);
+    parser.append("```json\n{\"translations\":[{\"id\":1,\"fr\":\"Oui\"}]}\n```");
+    assertEquals(1, items.size());
+    assertNotNull(ChatGPTBatch.parseTranslations(parser.getContent(), List.of("fr"), 1));
+  }
+}
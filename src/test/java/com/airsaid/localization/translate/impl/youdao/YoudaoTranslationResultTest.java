@@ -0,0 +1,28 @@
+package com.airsaid.localization.translate.impl.youdao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class YoudaoTranslationResultTest {
+
+  @Test
+  void testGetTranslationResultsOfLines() {
+    YoudaoTranslationResult result = new YoudaoTranslationResult();
+    result.setTranslation(List.of("Bonjour\nAu revoir\r\nMerci"));
+    assertEquals(List.of("Bonjour", "Au revoir", "Merci"), result.getTranslationResults());
+    assertEquals("Bonjour\nAu revoir\r\nMerci", result.getTranslationResult());
+  }
+
+  @Test
+  void testGetTranslationResultsWithoutTranslation() {
+    YoudaoTranslationResult result = new YoudaoTranslationResult();
+    assertTrue(result.getTranslationResults().isEmpty());
+    assertEquals("", result.getTranslationResult());
+  }
+}
@@ -0,0 +1,51 @@
+package com.airsaid.localization.translate.services;
+
+import com.airsaid.localization.translate.lang.Languages;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class TranslationCacheKeyTest {
+
+  @Test
+  void testEquals() {
+    TranslationCacheKey key1 = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    TranslationCacheKey key2 = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  void testTranslator() {
+    TranslationCacheKey key1 = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    TranslationCacheKey key2 = new TranslationCacheKey("DeepL", "", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    assertNotEquals(key1, key2);
+    assertNotEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  void testModelVersion() {
+    TranslationCacheKey key1 = new TranslationCacheKey("ChatGPT", "gpt-3.5-turbo", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    TranslationCacheKey key2 = new TranslationCacheKey("ChatGPT", "gpt-4", Languages.AUTO, Languages.CHINESE_SIMPLIFIED, "Hello");
+    assertNotEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  void testNormalizedText() {
+    // "é" as a single code point and as "e" followed by a combining accent.
+    TranslationCacheKey key1 = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.ENGLISH, "caf\u00e9");
+    TranslationCacheKey key2 = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.ENGLISH, "cafe\u0301");
+    assertEquals(key1, key2);
+  }
+
+  @Test
+  void testFixedSize() {
+    String longText = "Hello ".repeat(1000);
+    TranslationCacheKey key = new TranslationCacheKey("Google", "", Languages.AUTO, Languages.ENGLISH, longText);
+    assertTrue(key.toString().length() < 100);
+  }
+}
@@ -0,0 +1,43 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class BatchUtilTest {
+
+  @Test
+  void testEmpty() {
+    assertTrue(BatchUtil.chunk(List.of(), 10, 100).isEmpty());
+  }
+
+  @Test
+  void testMaxSize() {
+    List<List<String>> chunks = BatchUtil.chunk(List.of("a", "b", "c", "d", "e"), 2, 100);
+    assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), chunks);
+  }
+
+  @Test
+  void testMaxBytes() {
+    List<List<String>> chunks = BatchUtil.chunk(List.of("aa", "bb", "cc"), 10, 4);
+    assertEquals(List.of(List.of("aa", "bb"), List.of("cc")), chunks);
+  }
+
+  @Test
+  void testMultiByteCharacters() {
+    // Each of these characters is 3 bytes in UTF-8.
+    List<List<String>> chunks = BatchUtil.chunk(List.of("你", "好", "吗"), 10, 6);
+    assertEquals(List.of(List.of("你", "好"), List.of("吗")), chunks);
+  }
+
+  @Test
+  void testOversizedText() {
+    List<List<String>> chunks = BatchUtil.chunk(List.of("a", "bbbbbb", "c"), 10, 4);
+    assertEquals(List.of(List.of("a"), List.of("bbbbbb"), List.of("c")), chunks);
+  }
+}
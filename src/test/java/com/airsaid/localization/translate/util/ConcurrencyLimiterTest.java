@@ -0,0 +1,69 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class ConcurrencyLimiterTest {
+
+  @Test
+  void testWaitForRelease() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+    assertTrue(limiter.acquire().isDone());
+    assertTrue(limiter.acquire().isDone());
+    CompletableFuture<Void> third = limiter.acquire();
+    CompletableFuture<Void> fourth = limiter.acquire();
+    assertFalse(third.isDone());
+
+    limiter.release();
+    assertTrue(third.isDone());
+    assertFalse(fourth.isDone());
+    assertEquals(2, limiter.getInProgress());
+
+    limiter.release();
+    limiter.release();
+    assertTrue(fourth.isDone());
+    assertEquals(1, limiter.getInProgress());
+  }
+
+  @Test
+  void testCancelledWaiter() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+    limiter.acquire();
+    CompletableFuture<Void> cancelled = limiter.acquire();
+    CompletableFuture<Void> next = limiter.acquire();
+    cancelled.cancel(false);
+
+    limiter.release();
+    assertTrue(next.isDone());
+    assertFalse(next.isCancelled());
+    assertEquals(1, limiter.getInProgress());
+  }
+
+  @Test
+  void testSetMaxConcurrency() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+    limiter.acquire();
+    CompletableFuture<Void> second = limiter.acquire();
+    CompletableFuture<Void> third = limiter.acquire();
+
+    limiter.setMaxConcurrency(0);
+    assertTrue(second.isDone());
+    assertTrue(third.isDone());
+    assertEquals(3, limiter.getInProgress());
+
+    limiter.setMaxConcurrency(1);
+    CompletableFuture<Void> fourth = limiter.acquire();
+    limiter.release();
+    limiter.release();
+    assertFalse(fourth.isDone());
+    limiter.release();
+    assertTrue(fourth.isDone());
+    assertEquals(1, limiter.getInProgress());
+  }
+}
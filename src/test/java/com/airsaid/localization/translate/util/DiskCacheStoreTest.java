@@ -0,0 +1,171 @@
+package com.airsaid.localization.translate.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class DiskCacheStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testEmpty() {
+    DiskCacheStore store = new DiskCacheStore(tempDir.resolve("cache.log"), 10, Runnable::run);
+    assertNull(store.get("key"));
+    assertEquals(0, store.size());
+    store.close();
+  }
+
+  @Test
+  void testPutAndGet() {
+    DiskCacheStore store = new DiskCacheStore(tempDir.resolve("cache.log"), 10, Runnable::run);
+    store.put("key1", "value1");
+    store.put("key2", "你好");
+    store.put("key1", "value3");
+    assertEquals("value3", store.get("key1"));
+    assertEquals("你好", store.get("key2"));
+    assertEquals(2, store.size());
+    store.close();
+  }
+
+  @Test
+  void testReload() {
+    Path file = tempDir.resolve("caches/cache.log");
+    DiskCacheStore store = new DiskCacheStore(file, 10, Runnable::run);
+    store.put("key1", "value1");
+    store.put("key2", "value2");
+    store.put("key1", "value3");
+    store.close();
+
+    DiskCacheStore reloadedStore = new DiskCacheStore(file, 10, Runnable::run);
+    assertEquals(2, reloadedStore.size());
+    assertEquals("value3", reloadedStore.get("key1"));
+    assertEquals("value2", reloadedStore.get("key2"));
+    reloadedStore.close();
+  }
+
+  @Test
+  void testHotCache() {
+    DiskCacheStore store = new DiskCacheStore(tempDir.resolve("cache.log"), 16, Runnable::run);
+    for (int i = 0; i < 100; i++) {
+      store.put("key" + i, "value" + i);
+    }
+    // Only the hot entries are kept in memory, the others are read from the file.
+    assertTrue(store.getHotCache().size() <= 16);
+    assertEquals("value0", store.get("key0"));
+    assertTrue(store.getHotCache().size() <= 16);
+    assertEquals(100, store.size());
+    store.close();
+  }
+
+  @Test
+  void testCorruptedTail() throws Exception {
+    Path file = tempDir.resolve("cache.log");
+    DiskCacheStore store = new DiskCacheStore(file, 10, Runnable::run);
+    store.put("key1", "value1");
+    store.put("key2", "value2");
+    long size = store.getFileSize();
+    store.close();
+
+    // Simulate a crash in the middle of writing the last record.
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+      randomAccessFile.setLength(size - 3);
+    }
+
+    DiskCacheStore reloadedStore = new DiskCacheStore(file, 10, Runnable::run);
+    assertEquals("value1", reloadedStore.get("key1"));
+    assertNull(reloadedStore.get("key2"));
+    reloadedStore.put("key3", "value3");
+    reloadedStore.close();
+
+    DiskCacheStore store3 = new DiskCacheStore(file, 10, Runnable::run);
+    assertEquals("value1", store3.get("key1"));
+    assertEquals("value3", store3.get("key3"));
+    store3.close();
+  }
+
+  @Test
+  void testCompact() {
+    Path file = tempDir.resolve("cache.log");
+    DiskCacheStore store = new DiskCacheStore(file, 10, Runnable::run);
+    store.setMinCompactGarbageBytes(Long.MAX_VALUE);
+    for (int i = 0; i < 100; i++) {
+      store.put("key" + (i % 10), "value" + i);
+    }
+    long size = store.getFileSize();
+    store.compact();
+    assertTrue(store.getFileSize() < size);
+    assertEquals(10, store.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals("value" + (90 + i), store.get("key" + i));
+    }
+    store.put("key0", "value100");
+    store.close();
+
+    DiskCacheStore reloadedStore = new DiskCacheStore(file, 10, Runnable::run);
+    assertEquals(10, reloadedStore.size());
+    assertEquals("value100", reloadedStore.get("key0"));
+    assertEquals("value99", reloadedStore.get("key9"));
+    reloadedStore.close();
+  }
+
+  @Test
+  void testCompactFailedToReplaceFile() {
+    Path file = tempDir.resolve("cache.log");
+    DiskCacheStore store = new DiskCacheStore(file, 10, Runnable::run) {
+      @Override
+      void replaceFile(@NotNull Path source, @NotNull Path target) throws IOException {
+        throw new IOException("Atomic move is not supported");
+      }
+    };
+    store.setMinCompactGarbageBytes(Long.MAX_VALUE);
+    for (int i = 0; i < 100; i++) {
+      store.put("key" + (i % 10), "value" + i);
+    }
+    long size = store.getFileSize();
+    store.compact();
+    // The original file is opened again and the store keeps working.
+    assertEquals(size, store.getFileSize());
+    assertFalse(Files.exists(tempDir.resolve("cache.log.compact")));
+    store.put("key0", "value100");
+    store.getHotCache().clear();
+    assertEquals("value100", store.get("key0"));
+    assertEquals("value99", store.get("key9"));
+    store.close();
+  }
+
+  @Test
+  void testCompactInBackground() {
+    DiskCacheStore store = new DiskCacheStore(tempDir.resolve("cache.log"), 10, Runnable::run);
+    store.setMinCompactGarbageBytes(0);
+    for (int i = 0; i < 100; i++) {
+      store.put("key", "value" + i);
+    }
+    // The file is compacted as soon as the outdated records take up more space than the live ones.
+    assertTrue(store.getFileSize() < 3 * 20);
+    assertEquals("value99", store.get("key"));
+    store.close();
+  }
+
+  @Test
+  void testClear() {
+    DiskCacheStore store = new DiskCacheStore(tempDir.resolve("cache.log"), 10, Runnable::run);
+    store.put("key1", "value1");
+    store.clear();
+    assertNull(store.get("key1"));
+    assertEquals(0, store.size());
+    assertEquals(0, store.getFileSize());
+    store.close();
+  }
+}
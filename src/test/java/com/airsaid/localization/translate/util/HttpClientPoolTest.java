@@ -0,0 +1,44 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class HttpClientPoolTest {
+
+  @Test
+  void testSameHostSharesClient() {
+    HttpClientPool pool = new HttpClientPool();
+    HttpClient client = pool.getClient(URI.create("https://api.example.com/v1/translate"));
+    assertSame(client, pool.getClient(URI.create("https://api.example.com/v2/languages?q=1")));
+  }
+
+  @Test
+  void testDifferentHostsUseDifferentClients() {
+    HttpClientPool pool = new HttpClientPool();
+    HttpClient client = pool.getClient(URI.create("https://api.example.com/translate"));
+    assertNotSame(client, pool.getClient(URI.create("https://www.example.com/translate")));
+    assertNotSame(client, pool.getClient(URI.create("http://api.example.com/translate")));
+  }
+
+  @Test
+  void testConfigure() {
+    HttpClientPool pool = new HttpClientPool();
+    HttpClient client = pool.getClient(URI.create("https://api.example.com/translate"));
+    assertEquals(HttpClient.Version.HTTP_2, client.version());
+
+    pool.configure(5, 30, false);
+    HttpClient newClient = pool.getClient(URI.create("https://api.example.com/translate"));
+    assertNotSame(client, newClient);
+    assertEquals(HttpClient.Version.HTTP_1_1, newClient.version());
+    assertEquals(Duration.ofSeconds(5), newClient.connectTimeout().orElseThrow());
+    assertEquals(Duration.ofSeconds(30), pool.getReadTimeout());
+  }
+}
@@ -0,0 +1,72 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class JsonStreamUtilTest {
+
+  @Test
+  void testRootArray() throws IOException {
+    String json = "[{\"detectedLanguage\":{\"language\":\"en\",\"score\":1.0},\"translations\":[{\"text\":\"你好\",\"to\":\"zh-Hans\"},{\"text\":\"Bonjour\",\"to\":\"fr\"}]}," +
+        "{\"translations\":[{\"text\":\"世界\",\"to\":\"zh-Hans\"},{\"text\":null,\"to\":\"fr\"}]}]";
+    List<String> texts = new ArrayList<>();
+    JsonStreamUtil.read(new StringReader(json), Map.of("[].translations[].text", texts::add));
+    assertEquals(List.of("你好", "Bonjour", "世界", ""), texts);
+  }
+
+  @Test
+  void testNestedObject() throws IOException {
+    String json = "{\"data\":{\"translations\":[{\"translatedText\":\"Hola\",\"detectedSourceLanguage\":\"en\"}]}}";
+    List<String> texts = new ArrayList<>();
+    JsonStreamUtil.read(new StringReader(json), Map.of("data.translations[].translatedText", texts::add));
+    assertEquals(List.of("Hola"), texts);
+  }
+
+  @Test
+  void testReadStrings() throws IOException {
+    String json = "{\"translations\":[{\"detected_source_language\":\"EN\",\"text\":\"Hallo\"},{\"text\":\"Welt\"}]}";
+    assertEquals(List.of("Hallo", "Welt"), JsonStreamUtil.readStrings(new StringReader(json), "translations[].text"));
+  }
+
+  @Test
+  void testMultipleFields() throws IOException {
+    String json = "{\"error\":{\"code\":403,\"message\":\"Forbidden\",\"errors\":[{\"message\":\"ignored\"}]}}";
+    List<String> codes = new ArrayList<>();
+    List<String> messages = new ArrayList<>();
+    JsonStreamUtil.read(new StringReader(json), Map.of("error.code", codes::add, "error.message", messages::add));
+    assertEquals(List.of("403"), codes);
+    assertEquals(List.of("Forbidden"), messages);
+  }
+
+  @Test
+  void testSimilarNamesAreSkipped() throws IOException {
+    String json = "{\"sentences\":[{\"trans\":\"a\",\"translit\":\"x\"},{\"trans\":\"b\"}],\"sentencesExtra\":[{\"trans\":\"c\"}]}";
+    List<String> texts = new ArrayList<>();
+    JsonStreamUtil.read(new StringReader(json), Map.of("sentences[].trans", texts::add));
+    assertEquals(List.of("a", "b"), texts);
+  }
+
+  @Test
+  void testMissingField() throws IOException {
+    List<String> texts = new ArrayList<>();
+    JsonStreamUtil.read(new StringReader("{\"choices\":[]}"), Map.of("choices[].message.content", texts::add));
+    assertTrue(texts.isEmpty());
+  }
+
+  @Test
+  void testMalformedJson() {
+    assertThrows(IOException.class, () ->
+        JsonStreamUtil.read(new StringReader("{\"translations\":[{\"text\":"), Map.of("translations[].text", text -> {
+        })));
+  }
+}
@@ -2,6 +2,11 @@ package com.airsaid.localization.translate.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -39,4 +44,102 @@ class LRUCacheTest {
     lruCache.put("key5", "value5");
     assertNull(lruCache.get("key2"));
   }
-}
\ No newline at end of file
+
+  @Test
+  void testGetMovesToHead() {
+    LRUCache<String, String> lruCache = new LRUCache<>(3);
+    lruCache.put("key1", "value1");
+    lruCache.put("key2", "value2");
+    lruCache.put("key3", "value3");
+    lruCache.get("key1");
+    lruCache.put("key4", "value4");
+    assertEquals("value1", lruCache.get("key1"));
+    assertNull(lruCache.get("key2"));
+    assertEquals(3, lruCache.size());
+  }
+
+  @Test
+  void testPutExistingKey() {
+    LRUCache<String, String> lruCache = new LRUCache<>(2);
+    lruCache.put("key1", "value1");
+    lruCache.put("key2", "value2");
+    lruCache.put("key1", "value3");
+    assertEquals(2, lruCache.size());
+    lruCache.put("key4", "value4");
+    assertEquals("value3", lruCache.get("key1"));
+    assertNull(lruCache.get("key2"));
+  }
+
+  @Test
+  void testForEach() {
+    LRUCache<String, String> lruCache = new LRUCache<>(3);
+    lruCache.put("key1", "value1");
+    lruCache.put("key2", "value2");
+    lruCache.put("key3", "value3");
+    lruCache.get("key1");
+    Map<String, String> values = new LinkedHashMap<>();
+    lruCache.forEach(values::put);
+    assertEquals(List.of("key2", "key3", "key1"), new ArrayList<>(values.keySet()));
+  }
+
+  @Test
+  void testSetMaxCapacity() {
+    LRUCache<String, String> lruCache = new LRUCache<>(3);
+    lruCache.put("key1", "value1");
+    lruCache.put("key2", "value2");
+    lruCache.put("key3", "value3");
+    lruCache.setMaxCapacity(1);
+    assertEquals(1, lruCache.size());
+    assertEquals("value3", lruCache.get("key3"));
+    assertEquals(2, lruCache.getEvictionCount());
+  }
+
+  @Test
+  void testCounters() {
+    LRUCache<String, String> lruCache = new LRUCache<>(1);
+    lruCache.put("key1", "value1");
+    lruCache.get("key1");
+    lruCache.get("key2");
+    lruCache.put("key2", "value2");
+    assertEquals(1, lruCache.getHitCount());
+    assertEquals(1, lruCache.getMissCount());
+    assertEquals(1, lruCache.getEvictionCount());
+  }
+
+  @Test
+  void testSegments() {
+    LRUCache<Integer, Integer> lruCache = new LRUCache<>(100, 8);
+    for (int i = 0; i < 1000; i++) {
+      lruCache.put(i, i);
+    }
+    assertEquals(100, lruCache.size());
+    assertEquals(900, lruCache.getEvictionCount());
+    // Each of the 8 segments holds at least 12 of the most recently used entries.
+    for (int i = 1000 - 8 * 12; i < 1000; i++) {
+      assertEquals(Integer.valueOf(i), lruCache.get(i));
+    }
+  }
+
+  @Test
+  void testConcurrentAccess() throws InterruptedException {
+    LRUCache<Integer, Integer> lruCache = new LRUCache<>(64, 8);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int offset = t * 10_000;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          lruCache.put(offset + i, i);
+          lruCache.get(offset + i / 2);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(64, lruCache.size());
+    assertEquals(8 * 10_000 - 64, lruCache.getEvictionCount());
+    assertEquals(8 * 10_000, lruCache.getHitCount() + lruCache.getMissCount());
+  }
+}
@@ -0,0 +1,96 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class RateLimiterTest {
+
+  private long now;
+
+  @Test
+  void testUnlimited() {
+    RateLimiter rateLimiter = new RateLimiter(0, 1, 0, () -> now);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(0, rateLimiter.reserve(1000));
+    }
+  }
+
+  @Test
+  void testBurst() {
+    RateLimiter rateLimiter = new RateLimiter(2, 3, 0, () -> now);
+    assertEquals(0, rateLimiter.reserve(1));
+    assertEquals(0, rateLimiter.reserve(1));
+    assertEquals(0, rateLimiter.reserve(1));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.reserve(1));
+    // Concurrent callers queue up behind the previous reservations.
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), rateLimiter.reserve(1));
+  }
+
+  @Test
+  void testRefill() {
+    RateLimiter rateLimiter = new RateLimiter(1, 1, 0, () -> now);
+    assertEquals(0, rateLimiter.reserve(1));
+    now += TimeUnit.SECONDS.toNanos(1);
+    assertEquals(0, rateLimiter.reserve(1));
+    // The idle time does not exceed the burst capacity.
+    now += TimeUnit.SECONDS.toNanos(10);
+    assertEquals(0, rateLimiter.reserve(1));
+    assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.reserve(1));
+  }
+
+  @Test
+  void testCharactersPerMinute() {
+    RateLimiter rateLimiter = new RateLimiter(0, 1, 600, () -> now);
+    assertEquals(0, rateLimiter.reserve(600));
+    assertEquals(TimeUnit.SECONDS.toNanos(6), rateLimiter.reserve(60));
+  }
+
+  @Test
+  void testSetRate() {
+    RateLimiter rateLimiter = new RateLimiter(1, 1, 0, () -> now);
+    assertEquals(0, rateLimiter.reserve(1));
+    rateLimiter.setRate(0, 1, 0);
+    assertEquals(0, rateLimiter.reserve(1));
+  }
+
+  @Test
+  void testRateLimited() {
+    RateLimiter rateLimiter = new RateLimiter(4, 1, 0, () -> now);
+    assertEquals(0, rateLimiter.reserve(1));
+    rateLimiter.onRateLimited(TimeUnit.SECONDS.toNanos(3));
+    assertEquals(2, rateLimiter.getRequestsPerSecond(), 1e-9);
+    // The pause applies to all requests, then the halved rate spaces them out.
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(3500), rateLimiter.reserve(1));
+    now += TimeUnit.SECONDS.toNanos(3);
+    assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.reserve(1));
+  }
+
+  @Test
+  void testRecovery() {
+    RateLimiter rateLimiter = new RateLimiter(1, 1, 0, () -> now);
+    rateLimiter.onRateLimited(0);
+    assertEquals(0.5, rateLimiter.getRequestsPerSecond(), 1e-9);
+    for (int i = 0; i < 10; i++) {
+      rateLimiter.onSuccess();
+    }
+    // The rate does not exceed the configured rate.
+    assertEquals(1, rateLimiter.getRequestsPerSecond(), 1e-9);
+  }
+
+  @Test
+  void testRateLimitedWithoutConfiguredRate() {
+    RateLimiter rateLimiter = new RateLimiter(0, 1, 0, () -> now);
+    rateLimiter.onSuccess();
+    assertEquals(0, rateLimiter.getRequestsPerSecond(), 1e-9);
+    rateLimiter.onRateLimited(0);
+    assertEquals(1, rateLimiter.getRequestsPerSecond(), 1e-9);
+    rateLimiter.onSuccess();
+    assertEquals(1.1, rateLimiter.getRequestsPerSecond(), 1e-9);
+  }
+}
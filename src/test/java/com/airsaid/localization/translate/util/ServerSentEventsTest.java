@@ -0,0 +1,46 @@
+package com.airsaid.localization.translate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class ServerSentEventsTest {
+
+  @Test
+  void testRead() throws IOException {
+    String stream = ": keep-alive\n\n" +
+        "data: {\"id\":1}\n\n" +
+        "event: message\r\ndata:{\"id\":2}\r\n\r\n" +
+        "data: first line\ndata: second line\n\n" +
+        "data: [DONE]\n\n";
+    List<String> events = new ArrayList<>();
+    ServerSentEvents.read(new StringReader(stream), events::add);
+    assertEquals(List.of("{\"id\":1}", "{\"id\":2}", "first line\nsecond line", "[DONE]"), events);
+  }
+
+  @Test
+  void testStop() throws IOException {
+    List<String> events = new ArrayList<>();
+    ServerSentEvents.read(new StringReader("data: 1\n\ndata: [DONE]\n\ndata: 2\n\n"), data -> {
+      if ("[DONE]".equals(data)) return false;
+      events.add(data);
+      return true;
+    });
+    assertEquals(List.of("1"), events);
+  }
+
+  @Test
+  void testUnterminatedEvent() throws IOException {
+    List<String> events = new ArrayList<>();
+    ServerSentEvents.read(new StringReader("data: 1\n\ndata: 2"), events::add);
+    assertEquals(List.of("1", "2"), events);
+  }
+}
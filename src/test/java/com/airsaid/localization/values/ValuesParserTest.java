@@ -0,0 +1,77 @@
+package com.airsaid.localization.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author airsaid
+ */
+class ValuesParserTest {
+
+  private static final String VALUES = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+      "<resources xmlns:xliff=\"urn:oasis:names:tc:xliff:document:1.2\">\n" +
+      "    <!-- Greetings -->\n" +
+      "    <string name=\"hello\">Hello <b>Tom</b> &amp; Jerry</string>\n" +
+      "    <string name=\"count\">Count: <xliff:g id=\"count\" example=\"3\">%d</xliff:g> items</string>\n" +
+      "    <string name=\"app_name\" translatable=\"false\">Demo</string>\n" +
+      "    <plurals name=\"days\">\n" +
+      "        <item quantity=\"one\">One day</item>\n" +
+      "        <item quantity=\"other\">Days</item>\n" +
+      "    </plurals>\n" +
+      "    <dimen name=\"margin\">16dp</dimen>\n" +
+      "</resources>\n";
+
+  @Test
+  void testParse() throws IOException {
+    ValuesDocument document = ValuesParser.parse(VALUES);
+    List<ValueNode> entries = document.getEntries();
+    assertEquals(5, entries.size());
+
+    ValueNode hello = entries.get(0);
+    assertEquals("string", hello.getType());
+    assertEquals("hello", hello.getName());
+    assertTrue(hello.isTranslatable());
+    assertEquals(List.of("Hello ", "Tom", " & Jerry"), hello.getTexts());
+
+    ValueNode count = entries.get(1);
+    assertEquals(List.of("Count: ", " items"), count.getTexts());
+    assertEquals(ValueSegment.placeholder("<xliff:g id=\"count\" example=\"3\">%d</xliff:g>"), count.getSegments().get(1));
+
+    assertFalse(entries.get(2).isTranslatable());
+    assertEquals(List.of("One day", "Days"), entries.get(3).getTexts());
+    assertTrue(entries.get(4).getTexts().isEmpty());
+  }
+
+  @Test
+  void testRender() throws IOException {
+    ValuesDocument document = ValuesParser.parse(VALUES);
+    String expected = VALUES.substring(VALUES.indexOf("<resources"), VALUES.lastIndexOf('\n'));
+    assertEquals(expected, ValuesRenderer.render(document));
+
+    ValueNode hello = document.getEntries().get(0);
+    assertEquals("<string name=\"hello\">Bonjour <b>Tom</b> &amp; Jerry &lt;3</string>",
+        ValuesRenderer.render(hello, List.of("Bonjour ", "Tom", " & Jerry <3")));
+  }
+
+  @Test
+  void testParseMalformed() {
+    assertThrows(IOException.class, () -> ValuesParser.parse("<resources><string name=\"a\">A</resources>"));
+  }
+
+  @Test
+  void testParseFragments() {
+    ValuesDocument document = ValuesParser.parse("<resources>", "</resources>", List.of(
+        "\n    ", "<string name=\"a\">A &amp; B</string>", "\n    ", "<string name=\"b\">B & C</string>", "\n"));
+    List<ValueNode> entries = document.getEntries();
+    assertEquals(1, entries.size());
+    assertEquals("a", entries.get(0).getName());
+    assertEquals(List.of("A & B"), entries.get(0).getTexts());
+    // The broken entry is kept as it is.
+    assertEquals("<resources>\n    <string name=\"a\">A &amp; B</string>\n    <string name=\"b\">B & C</string>\n</resources>",
+        ValuesRenderer.render(document));
+  }
+}